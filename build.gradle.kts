@@ -3,6 +3,10 @@ plugins {
     java
 }
 
+repositories {
+    mavenCentral()
+}
+
 application {
     mainClass.set("io.arsh.Main")
 }
@@ -20,3 +24,56 @@ tasks.jar {
 }
 group = "io.arsh"
 version = "2.0.2"
+
+tasks.register<JavaExec>("perft") {
+    group = "verification"
+    description = "Validates move generation against known perft node counts."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("io.arsh.Perft")
+    args("--verify")
+}
+
+tasks.register<JavaExec>("evalcheck") {
+    group = "verification"
+    description = "Sanity checks the evaluation weights."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("io.arsh.engine.EvalCheck")
+    args("--verify")
+}
+
+tasks.register<JavaExec>("simulate") {
+    group = "application"
+    description = "Plays a batch of headless games, e.g. -Pargs=\"--games=1000 --chooser=random\"."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("io.arsh.sim.BatchRunner")
+    jvmArgs("-Djava.awt.headless=true")
+    if (project.hasProperty("args")) {
+        args(project.property("args").toString().split(" "))
+    }
+}
+
+tasks.check {
+    dependsOn("perft", "evalcheck")
+}
+
+val jmh by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks with GC and allocation profiling."
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    jvmArgs("-Djava.awt.headless=true")
+    args("-prof", "gc")
+    if (project.hasProperty("jmhInclude")) {
+        args(project.property("jmhInclude").toString())
+    }
+}
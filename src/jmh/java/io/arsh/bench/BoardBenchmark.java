@@ -0,0 +1,47 @@
+package io.arsh.bench;
+
+import io.arsh.game.Board;
+import io.arsh.game.Fen;
+import io.arsh.game.Rules;
+import io.arsh.game.models.Move;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({"start", "italian", "queens-gambit", "kiwipete", "rook-endgame", "pawn-endgame", "queen-endgame"})
+    public String position;
+
+    private Board board;
+    private Move[] moves;
+
+    @Setup
+    public void setup() {
+        board = Fen.parse(Positions.fen(position));
+        List<Move> legal = Rules.getAllLegalMoves(board, board.isWhiteToMove());
+        moves = legal.toArray(new Move[0]);
+    }
+
+    @Benchmark
+    public Board copy() {
+        return new Board(board);
+    }
+
+    @Benchmark
+    public Board movePiece() {
+        for (Move move : moves) {
+            board.movePiece(move.fromRow, move.fromCol, move.toRow, move.toCol);
+            board.unmakeMove();
+        }
+        return board;
+    }
+
+}
@@ -0,0 +1,58 @@
+package io.arsh.bench;
+
+import io.arsh.game.Board;
+import io.arsh.game.Fen;
+import io.arsh.game.models.Piece;
+import io.arsh.game.models.PieceType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Compares isWhite and isKing as Piece used to answer them, by matching the enum name, with the precomputed fields.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceBenchmark {
+
+    private Piece[] pieces;
+
+    @Setup
+    public void setup() {
+        List<Piece> found = new ArrayList<>();
+        for (String fen : Positions.CORPUS.values()) {
+            Board board = Fen.parse(fen);
+            for (int sq = 0; sq < 64; sq++) {
+                if (board.getPiece(sq) != null) found.add(board.getPiece(sq));
+            }
+        }
+        pieces = found.toArray(new Piece[0]);
+    }
+
+    @Benchmark
+    public int byName() {
+        int sum = 0;
+        for (Piece piece : pieces) {
+            int value = piece.getValue();
+            if (piece.name().endsWith("KING")) value += 1;
+            sum += piece.name().startsWith("WHITE") ? value : -value;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int byField() {
+        int sum = 0;
+        for (Piece piece : pieces) {
+            int value = piece.getValue();
+            if (piece.getType() == PieceType.KING) value += 1;
+            sum += piece.isWhite() ? value : -value;
+        }
+        return sum;
+    }
+
+}
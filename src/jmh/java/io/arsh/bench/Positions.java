@@ -0,0 +1,26 @@
+package io.arsh.bench;
+
+import java.util.Map;
+
+public final class Positions {
+
+    public static final Map<String, String> CORPUS = Map.of(
+            "start", "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "italian", "r1bqk2r/pppp1ppp/2n2n2/2b1p3/2B1P3/2N2N2/PPPP1PPP/R1BQK2R w KQkq - 4 5",
+            "queens-gambit", "r1bq1rk1/pp2bppp/2n1pn2/2pp4/2PP4/2N1PN2/PP2BPPP/R1BQ1RK1 w - - 0 8",
+            "kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "rook-endgame", "8/5pk1/6p1/8/3R4/6P1/5PK1/r7 w - - 0 40",
+            "pawn-endgame", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "queen-endgame", "8/8/2k5/5q2/5n2/8/5K2/8 b - - 0 1"
+    );
+
+    private Positions() {
+    }
+
+    public static String fen(String name) {
+        String fen = CORPUS.get(name);
+        if (fen == null) throw new IllegalArgumentException("Unknown position: " + name);
+        return fen;
+    }
+
+}
@@ -0,0 +1,50 @@
+package io.arsh.bench;
+
+import io.arsh.Panel;
+import io.arsh.game.Fen;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+    @Param({"start", "kiwipete", "rook-endgame"})
+    public String position;
+
+    @Param({"1.0", "0.45"})
+    public double scale;
+
+    private Panel panel;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    @Setup
+    public void setup() {
+        panel = new Panel(scale);
+        Fen.load(panel.getBoard(), Positions.fen(position));
+        Dimension size = panel.getPreferredSize();
+        panel.setSize(size);
+        image = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_ARGB);
+        graphics = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paintComponent() {
+        panel.paint(graphics);
+        return image;
+    }
+
+}
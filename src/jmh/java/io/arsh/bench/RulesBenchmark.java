@@ -0,0 +1,53 @@
+package io.arsh.bench;
+
+import io.arsh.game.Board;
+import io.arsh.game.Fen;
+import io.arsh.game.Rules;
+import io.arsh.game.models.Move;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RulesBenchmark {
+
+    @Param({"start", "italian", "queens-gambit", "kiwipete", "rook-endgame", "pawn-endgame", "queen-endgame"})
+    public String position;
+
+    private Board board;
+    private boolean white;
+    private int[] squares;
+
+    @Setup
+    public void setup() {
+        board = Fen.parse(Positions.fen(position));
+        white = board.isWhiteToMove();
+        squares = new int[board.getPieceCount(white)];
+        for (int i = 0; i < squares.length; i++) squares[i] = board.getPieceSquare(white, i);
+    }
+
+    @Benchmark
+    public void getLegalMoves(Blackhole blackhole) {
+        for (int square : squares) {
+            blackhole.consume(Rules.getLegalMoves(board, square / 8, square % 8));
+        }
+    }
+
+    @Benchmark
+    public List<Move> getAllLegalMoves() {
+        return Rules.getAllLegalMoves(board, white);
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return Rules.isInCheck(board, white);
+    }
+
+}
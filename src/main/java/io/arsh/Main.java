@@ -1,11 +1,17 @@
 package io.arsh;
 
+import io.arsh.game.Mode;
 import io.arsh.ui.Texture;
 import javax.swing.*;
 
 public class Main {
 
+    private static final long START = System.nanoTime();
+
     public static void main(String[] args) {
+        Texture.preload().thenRun(() -> report("textures decoded"));
+        Mode mode = args.length > 0 ? Mode.valueOf(args[0].toUpperCase()) : Mode.HUMAN_VS_HUMAN;
+
         SwingUtilities.invokeLater(() -> {
             JFrame frame = new JFrame("Chess");
             frame.setIconImage(Texture.WHITE_KING.getImage());
@@ -19,11 +25,12 @@ public class Main {
 //            frame.setLayout(new GridLayout(0, columns));
 //
 //            for (int i = 0; i < games; i++) {
-//                Panel panel = new Panel(scale);
+//                Panel panel = new Panel(scale, mode);
 //                frame.add(panel);
 //            }
 
-            Panel panel = new Panel(1.0);
+            Panel panel = new Panel(1.0, mode);
+            panel.onFirstFrame(() -> report("first frame"));
             frame.add(panel);
 
             frame.pack();
@@ -32,5 +39,9 @@ public class Main {
         });
     }
 
+    private static void report(String event) {
+        System.out.printf("%s after %d ms%n", event, (System.nanoTime() - START) / 1_000_000);
+    }
+
 }
 
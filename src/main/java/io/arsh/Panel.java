@@ -1,57 +1,87 @@
 package io.arsh;
 
 import io.arsh.game.Board;
+import io.arsh.game.GameSession;
+import io.arsh.game.Mode;
 import io.arsh.game.models.Piece;
 import io.arsh.ui.Controls;
+import io.arsh.ui.ScaledTextures;
 import io.arsh.ui.Texture;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Objects;
 
 public class Panel extends JPanel {
 
+    private final GameSession session;
     private final Board board;
     private final int PANEL_SIZE;
     private final int TILE_SIZE;
     private final int MARGIN;
     private Texture title = null;
+    private String analysis = null;
 
     private final Texture[][] tiles = new Texture[8][8];
+    private final Piece[] shown = new Piece[64];
+    private ScaledTextures textures;
+    private BufferedImage staticLayer;
+    private Runnable firstFrame;
 
     public Panel(double scale) {
-        this.board = new Board();
+        this(scale, Mode.HUMAN_VS_HUMAN);
+    }
+
+    public Panel(double scale, Mode mode) {
+        this.session = new GameSession();
+        this.board = session.getBoard();
         this.TILE_SIZE = (int) (64 * scale);
         this.MARGIN = (int) (16 * scale);
         this.PANEL_SIZE = TILE_SIZE * 8 + MARGIN * 2;
 
+        for (int sq = 0; sq < 64; sq++) shown[sq] = board.getPiece(sq);
+
         setPreferredSize(new Dimension(PANEL_SIZE, PANEL_SIZE));
-        Controls controls = new Controls(this);
+        Controls controls = new Controls(this, mode);
         addMouseListener(controls);
     }
 
     @Override
     protected void paintComponent(Graphics graph) {
         super.paintComponent(graph);
-        graph.drawImage(Texture.BOARD.getImage(), 0, 0, PANEL_SIZE, PANEL_SIZE, this);
-
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
+        ScaledTextures textures = getTextures();
+        graph.drawImage(getStaticLayer(), 0, 0, this);
+
+        Rectangle clip = graph.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, PANEL_SIZE, PANEL_SIZE);
+        int firstCol = Math.max(0, Math.floorDiv(clip.x - MARGIN, TILE_SIZE));
+        int lastCol = Math.min(7, Math.floorDiv(clip.x + clip.width - 1 - MARGIN, TILE_SIZE));
+        int firstRow = Math.max(0, Math.floorDiv(clip.y - MARGIN, TILE_SIZE));
+        int lastRow = Math.min(7, Math.floorDiv(clip.y + clip.height - 1 - MARGIN, TILE_SIZE));
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
                 int x = MARGIN + col * TILE_SIZE;
                 int y = MARGIN + row * TILE_SIZE;
 
                 Texture tile = tiles[row][col];
-                if (tile == null) {
-                    boolean even = (row + col) % 2 == 0;
-                    tile = even ? Texture.TILE_WHITE : Texture.TILE_BLACK;
+                if (tile != null) {
+                    graph.drawImage(textures.get(tile, TILE_SIZE, TILE_SIZE), x, y, this);
                 }
-                graph.drawImage(tile.getImage(), x, y, TILE_SIZE, TILE_SIZE, this);
 
                 Piece piece = board.getPiece(row, col);
                 if (piece != null) {
-                    graph.drawImage(piece.getTexture().getImage(), x, y, TILE_SIZE, TILE_SIZE, this);
+                    graph.drawImage(textures.get(Texture.of(piece), TILE_SIZE, TILE_SIZE), x, y, this);
                 }
             }
         }
+        if (analysis != null && clip.intersects(0, PANEL_SIZE - MARGIN, PANEL_SIZE, MARGIN)) {
+            graph.setColor(Color.WHITE);
+            graph.setFont(graph.getFont().deriveFont(Font.PLAIN, MARGIN * 0.7f));
+            ((Graphics2D) graph).setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            graph.drawString(analysis, MARGIN, PANEL_SIZE - MARGIN / 4);
+        }
         if (title != null) {
             double imgWidth = 0.6;
             double imgHeight = 0.18;
@@ -62,15 +92,74 @@ public class Panel extends JPanel {
             int x = (PANEL_SIZE - drawWidth) / 2;
             int y = (PANEL_SIZE - drawHeight) / 2;
 
-            graph.drawImage(title.getImage(), x, y, drawWidth, drawHeight, this);
+            if (clip.intersects(x, y, drawWidth, drawHeight)) {
+                graph.drawImage(textures.get(title, drawWidth, drawHeight), x, y, this);
+            }
+        }
+
+        if (firstFrame != null) {
+            Runnable callback = firstFrame;
+            firstFrame = null;
+            callback.run();
         }
     }
 
+    public void onFirstFrame(Runnable callback) {
+        this.firstFrame = callback;
+    }
+
+    private ScaledTextures getTextures() {
+        GraphicsConfiguration config = getGraphicsConfiguration();
+        if (textures == null || !textures.isFor(config)) {
+            textures = new ScaledTextures(config);
+            staticLayer = null;
+        }
+        return textures;
+    }
+
+    private BufferedImage getStaticLayer() {
+        if (staticLayer == null) {
+            staticLayer = textures.createImage(PANEL_SIZE, PANEL_SIZE);
+            Graphics2D graph = staticLayer.createGraphics();
+            graph.drawImage(textures.get(Texture.BOARD, PANEL_SIZE, PANEL_SIZE), 0, 0, null);
+            for (int row = 0; row < 8; row++) {
+                for (int col = 0; col < 8; col++) {
+                    Texture tile = (row + col) % 2 == 0 ? Texture.TILE_WHITE : Texture.TILE_BLACK;
+                    graph.drawImage(textures.get(tile, TILE_SIZE, TILE_SIZE), MARGIN + col * TILE_SIZE, MARGIN + row * TILE_SIZE, null);
+                }
+            }
+            graph.dispose();
+        }
+        return staticLayer;
+    }
+
+    public void refreshBoard() {
+        for (int sq = 0; sq < 64; sq++) {
+            Piece piece = board.getPiece(sq);
+            if (shown[sq] != piece) {
+                shown[sq] = piece;
+                repaintTile(sq / 8, sq % 8);
+            }
+        }
+    }
+
+    private void repaintTile(int row, int col) {
+        repaint(MARGIN + col * TILE_SIZE, MARGIN + row * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+    }
+
     public void setTitle(Texture title) {
+        if (this.title == title) return;
         this.title = title;
         repaint();
     }
 
+    // A single line of engine output shown in the bottom margin, or null to hide it.
+    public void setAnalysis(String analysis) {
+        if (Objects.equals(this.analysis, analysis)) return;
+        this.analysis = analysis;
+        repaint(0, PANEL_SIZE - MARGIN, PANEL_SIZE, MARGIN);
+    }
+
     public int getTileSize() {
         return TILE_SIZE;
     }
@@ -81,18 +170,21 @@ public class Panel extends JPanel {
 
     public void setTile(int row, int col, Texture texture) {
         if (row < 0 || row >= 8 || col < 0 || col >= 8) return;
+        if (tiles[row][col] == texture) return;
         tiles[row][col] = texture;
-        repaint();
+        repaintTile(row, col);
     }
 
     public void resetTile(int row, int col) {
-        if (row < 0 || row >= 8 || col < 0 || col >= 8) return;
-        tiles[row][col] = null;
-        repaint();
+        setTile(row, col, null);
     }
 
     public Board getBoard() {
         return board;
     }
 
+    public GameSession getSession() {
+        return session;
+    }
+
 }
\ No newline at end of file
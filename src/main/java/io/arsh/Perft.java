@@ -0,0 +1,116 @@
+package io.arsh;
+
+import io.arsh.game.Board;
+import io.arsh.game.Fen;
+import io.arsh.game.Rules;
+import io.arsh.game.models.Move;
+import io.arsh.game.models.MoveList;
+
+public class Perft {
+
+    private static final Object[][] SUITE = {
+            {Fen.START, 5, 4_865_609L},
+            {"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", 3, 97_862L},
+            {"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 5, 674_624L},
+            {"r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1", 4, 314_346L},
+            {"r3k2r/1b4bq/8/8/8/8/7B/R3K2R w KQkq - 0 1", 4, 1_274_206L},
+            {"r3k2r/8/3Q4/8/8/5q2/8/R3K2R b KQkq - 0 1", 4, 1_720_476L},
+            {"5k2/8/8/8/8/8/8/4K2R w K - 0 1", 6, 661_072L},
+            {"3k4/8/8/8/8/8/8/R3K3 w Q - 0 1", 6, 803_711L},
+            {"8/8/2k5/5q2/5n2/8/5K2/8 b - - 0 1", 4, 23_527L},
+            // Promotions are queen only here, so these counts are lower than the published ones that include underpromotions.
+            {"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1", 4, 320_802L},
+            {"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", 3, 54_007L},
+            {"n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1", 4, 47_828L},
+    };
+
+    private final Board board;
+    private final MoveList[] buffers;
+
+    public Perft(Board board, int depth) {
+        this.board = board;
+        this.buffers = new MoveList[depth + 1];
+        for (int i = 0; i < buffers.length; i++) buffers[i] = new MoveList();
+    }
+
+    public long count(int depth) {
+        if (depth == 0) return 1;
+
+        MoveList moves = buffers[depth];
+        moves.clear();
+        Rules.generateLegalMoves(board, board.isWhiteToMove(), moves);
+        if (depth == 1) return moves.size();
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += count(depth - 1);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    public long divide(int depth) {
+        MoveList moves = new MoveList();
+        Rules.generateLegalMoves(board, board.isWhiteToMove(), moves);
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            board.makeMove(move);
+            long count = count(depth - 1);
+            board.unmakeMove();
+            System.out.println(Fen.squareName(Move.from(move)) + Fen.squareName(Move.to(move)) + ": " + count);
+            nodes += count;
+        }
+        return nodes;
+    }
+
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--verify")) {
+            System.exit(verify() ? 0 : 1);
+        }
+
+        boolean divide = false;
+        int depth = 5;
+        String fen = Fen.START;
+        for (String arg : args) {
+            if (arg.equals("--divide")) {
+                divide = true;
+            } else if (arg.matches("\\d+")) {
+                depth = Integer.parseInt(arg);
+            } else {
+                fen = arg;
+            }
+        }
+
+        Perft perft = new Perft(Fen.parse(fen), depth);
+        long start = System.nanoTime();
+        long nodes = divide ? perft.divide(depth) : perft.count(depth);
+        report(fen, depth, nodes, System.nanoTime() - start);
+    }
+
+    private static boolean verify() {
+        boolean passed = true;
+        for (Object[] test : SUITE) {
+            String fen = (String) test[0];
+            int depth = (int) test[1];
+            long expected = (long) test[2];
+
+            long start = System.nanoTime();
+            long nodes = new Perft(Fen.parse(fen), depth).count(depth);
+            report(fen, depth, nodes, System.nanoTime() - start);
+            if (nodes != expected) {
+                System.out.println("  FAILED: expected " + expected);
+                passed = false;
+            }
+        }
+        return passed;
+    }
+
+    private static void report(String fen, int depth, long nodes, long nanos) {
+        long nps = nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+        System.out.printf("%s depth %d: %d nodes in %d ms (%d nodes/s)%n", fen, depth, nodes, nanos / 1_000_000, nps);
+    }
+
+}
@@ -0,0 +1,202 @@
+package io.arsh.engine;
+
+import io.arsh.game.Board;
+import io.arsh.game.Rules;
+import io.arsh.game.models.Move;
+import io.arsh.game.models.MoveList;
+import io.arsh.tablebase.Tablebase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+public class Engine {
+
+    public static final int INFINITY = 1_000_000;
+    public static final int MATE = 100_000;
+    public static final long INFINITE = Long.MAX_VALUE;
+    public static final int DEFAULT_HASH_MB = 16;
+    public static final int MAX_HASH_MB = 256;
+    static final int MAX_PLY = 128;
+
+    private final int maxDepth;
+    private final long timeLimitMillis;
+    private final TranspositionTable table;
+    private final SearchWorker[] workers;
+    private final ExecutorService helpers;
+
+    private Tablebase tablebase = Tablebase.getDefault();
+    // Searches are numbered when requested; every search numbered up to stoppedUpTo has been stopped,
+    // so a stop() that arrives while a request is still queued applies to it once it starts.
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger stoppedUpTo = new AtomicInteger();
+    private int current;
+    private volatile long deadline;
+    private long started;
+    private Consumer<SearchInfo> progress;
+    private SearchWorker best;
+
+    public Engine(int maxDepth, long timeLimitMillis) {
+        this(maxDepth, timeLimitMillis, 1);
+    }
+
+    public Engine(int maxDepth, long timeLimitMillis, int threads) {
+        this(maxDepth, timeLimitMillis, threads, new TranspositionTable(DEFAULT_HASH_MB));
+    }
+
+    public Engine(int maxDepth, long timeLimitMillis, int threads, TranspositionTable table) {
+        this.maxDepth = Math.min(maxDepth, MAX_PLY - 1);
+        this.timeLimitMillis = timeLimitMillis;
+        this.table = table;
+        this.workers = new SearchWorker[Math.max(1, threads)];
+        for (int i = 0; i < workers.length; i++) workers[i] = new SearchWorker(this, i, table);
+        this.helpers = workers.length > 1 ? Executors.newFixedThreadPool(workers.length - 1, runnable -> {
+            Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    public int search(Board position, boolean white) {
+        return search(position, white, timeLimitMillis, null);
+    }
+
+    // Searches for at most the given time, or until stop() or an interrupt of the calling thread
+    // when it is INFINITE. The progress callback runs on the calling thread after every completed depth.
+    public int search(Board position, boolean white, long timeLimitMillis, Consumer<SearchInfo> progress) {
+        return search(request(), position, white, timeLimitMillis, progress);
+    }
+
+    // Reserves a search for a later search(request, ...) call; stop() applies to it from now on.
+    public int request() {
+        return requests.incrementAndGet();
+    }
+
+    public int search(int request, Board position, boolean white, long timeLimitMillis, Consumer<SearchInfo> progress) {
+        Board board = new Board(position);
+
+        MoveList root = new MoveList();
+        Rules.generateLegalMoves(board, white, root);
+        if (root.isEmpty()) return Move.NONE;
+
+        current = request;
+        started = System.currentTimeMillis();
+        deadline = timeLimitMillis == INFINITE ? Long.MAX_VALUE : started + timeLimitMillis;
+        this.progress = progress;
+        table.newSearch();
+        for (SearchWorker worker : workers) worker.prepare(board, white, root);
+
+        int known = tablebase == null ? Move.NONE : tablebase.bestMove(board);
+        if (known != Move.NONE) {
+            best = null;
+            return known;
+        }
+
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 1; i < workers.length; i++) {
+            SearchWorker worker = workers[i];
+            running.add(helpers.submit(() -> worker.search(maxDepth)));
+        }
+        workers[0].search(maxDepth);
+        stoppedUpTo.accumulateAndGet(request, Math::max);
+        // Helpers must be done before the workers can be prepared again, even when this thread is interrupted.
+        boolean interrupted = false;
+        for (Future<?> future : running) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                } catch (ExecutionException ex) {
+                    ex.printStackTrace();
+                    break;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        this.progress = null;
+
+        best = workers[0];
+        for (SearchWorker worker : workers) {
+            if (worker.getCompletedDepth() > best.getCompletedDepth()) best = worker;
+        }
+        return best.getBestMove();
+    }
+
+    // Stops the running search and any already requested one.
+    public void stop() {
+        stoppedUpTo.accumulateAndGet(requests.get(), Math::max);
+    }
+
+    public void shutdown() {
+        stoppedUpTo.set(Integer.MAX_VALUE);
+        if (helpers != null) helpers.shutdownNow();
+    }
+
+    public Tablebase getTablebase() {
+        return tablebase;
+    }
+
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    public int getThreads() {
+        return workers.length;
+    }
+
+    public long getNodes() {
+        long nodes = 0;
+        for (SearchWorker worker : workers) nodes += worker.getNodes();
+        return nodes;
+    }
+
+    public long getNodes(int thread) {
+        return workers[thread].getNodes();
+    }
+
+    public long getTablebaseHits() {
+        long hits = 0;
+        for (SearchWorker worker : workers) hits += worker.getTablebaseHits();
+        return hits;
+    }
+
+    public double getPawnHitRate() {
+        long probes = 0, hits = 0;
+        for (SearchWorker worker : workers) {
+            probes += worker.getPawnTable().getProbes();
+            hits += worker.getPawnTable().getHits();
+        }
+        return probes == 0 ? 0 : (double) hits / probes;
+    }
+
+    public int getCompletedDepth() {
+        return best == null ? 0 : best.getCompletedDepth();
+    }
+
+    public int getBestScore() {
+        return best == null ? 0 : best.getBestScore();
+    }
+
+    void report(int depth, int score, int[] line) {
+        if (progress == null) return;
+        long[] nodes = new long[workers.length];
+        for (int i = 0; i < workers.length; i++) nodes[i] = workers[i].getNodes();
+        progress.accept(new SearchInfo(depth, score, nodes, System.currentTimeMillis() - started, getPawnHitRate(), line));
+    }
+
+    boolean isStopped() {
+        return stoppedUpTo.get() >= current;
+    }
+
+    boolean isOutOfTime() {
+        return System.currentTimeMillis() >= deadline;
+    }
+
+}
@@ -0,0 +1,92 @@
+package io.arsh.engine;
+
+import io.arsh.game.Board;
+import io.arsh.game.Fen;
+import io.arsh.game.models.PieceType;
+
+import java.util.Locale;
+import java.util.Properties;
+
+// Sanity checks on the default evaluation weights, run by the evalcheck task.
+public class EvalCheck {
+
+    private static final String[] SYMMETRY = {
+            Fen.START,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "6k1/5ppp/8/8/8/8/5PPP/R5K1 b - - 0 1",
+    };
+
+    // The rook on the open g-file hits g7 and g8, next to the black king.
+    private static final String KING_ATTACK = "7k/5p1p/8/8/8/8/5P1P/5KR1 w - - 0 1";
+
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--verify")) {
+            System.exit(verify() ? 0 : 1);
+        }
+        Evaluator evaluator = Evaluator.getDefault();
+        for (String fen : args.length > 0 ? args : new String[]{Fen.START}) {
+            Board board = Fen.parse(fen);
+            System.out.printf("%s: %d%n", fen, evaluator.evaluate(board, board.isWhiteToMove()));
+        }
+    }
+
+    private static boolean verify() {
+        Evaluator evaluator = Evaluator.getDefault();
+        boolean passed = true;
+
+        for (String fen : SYMMETRY) {
+            Board board = Fen.parse(fen);
+            Board mirrored = Fen.parse(mirror(fen));
+            int score = evaluator.evaluate(board, board.isWhiteToMove());
+            int flipped = evaluator.evaluate(mirrored, mirrored.isWhiteToMove());
+            System.out.printf("%s: %d, mirrored %d%n", fen, score, flipped);
+            if (score != flipped) {
+                System.out.println("  FAILED: evaluation is not colour symmetric");
+                passed = false;
+            }
+        }
+
+        Properties quiet = Evaluator.defaultWeights();
+        for (PieceType type : PieceType.values()) quiet.setProperty("king.attack." + type.name().toLowerCase(Locale.ROOT), "0");
+        Evaluator withoutAttacks = new Evaluator(quiet);
+
+        Board attack = Fen.parse(KING_ATTACK);
+        int with = Evaluator.midgame(evaluator.evaluatePieces(attack, true));
+        int without = Evaluator.midgame(withoutAttacks.evaluatePieces(attack, true));
+        System.out.printf("king zone attack: %d with, %d without%n", with, without);
+        if (with <= without) {
+            System.out.println("  FAILED: attacking the enemy king must count for the attacker");
+            passed = false;
+        }
+        return passed;
+    }
+
+    private static String mirror(String fen) {
+        String[] fields = fen.split(" ");
+        String[] ranks = fields[0].split("/");
+        StringBuilder placement = new StringBuilder();
+        for (int row = 7; row >= 0; row--) {
+            placement.append(swapCase(ranks[row]));
+            if (row > 0) placement.append('/');
+        }
+        String castling = fields[2].equals("-") ? "-" : sortCastling(swapCase(fields[2]));
+        String enPassant = fields[3].equals("-") ? "-" : "" + fields[3].charAt(0) + (char) ('9' - fields[3].charAt(1) + '0');
+        return placement + (fields[1].equals("w") ? " b " : " w ") + castling + " " + enPassant + " " + fields[4] + " " + fields[5];
+    }
+
+    private static String swapCase(String text) {
+        StringBuilder swapped = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            swapped.append(Character.isUpperCase(c) ? Character.toLowerCase(c) : Character.toUpperCase(c));
+        }
+        return swapped.toString();
+    }
+
+    private static String sortCastling(String castling) {
+        StringBuilder sorted = new StringBuilder();
+        for (char c : "KQkq".toCharArray()) if (castling.indexOf(c) >= 0) sorted.append(c);
+        return sorted.toString();
+    }
+
+}
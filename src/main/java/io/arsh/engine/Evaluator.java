@@ -0,0 +1,262 @@
+package io.arsh.engine;
+
+import io.arsh.game.Attacks;
+import io.arsh.game.Board;
+import io.arsh.game.PieceSquareTable;
+import io.arsh.game.models.Piece;
+import io.arsh.game.models.PieceType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Properties;
+
+import static io.arsh.game.Bitboards.*;
+
+public class Evaluator {
+
+    private static final String RESOURCE = "eval.properties";
+    private static final int[] PHASE = {0, 1, 1, 2, 4, 0};
+    private static final int MAX_PHASE = 24;
+
+    private static final long[] FILES = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    private static final long[][] PASSED_SPAN = new long[2][64];
+    private static final long[][] SHIELD = new long[2][64];
+
+    static {
+        for (int col = 0; col < 8; col++) FILES[col] = FILE_A << col;
+        for (int col = 0; col < 8; col++) {
+            ADJACENT_FILES[col] = (col > 0 ? FILES[col - 1] : 0L) | (col < 7 ? FILES[col + 1] : 0L);
+        }
+        for (int sq = 0; sq < 64; sq++) {
+            long span = FILES[col(sq)] | ADJACENT_FILES[col(sq)];
+            for (int row = 0; row < 8; row++) {
+                long rank = 0xFFL << row * 8;
+                if (row < row(sq)) PASSED_SPAN[1][sq] |= span & rank;
+                if (row > row(sq)) PASSED_SPAN[0][sq] |= span & rank;
+                if (row < row(sq) && row >= row(sq) - 2) SHIELD[1][sq] |= span & rank;
+                if (row > row(sq) && row <= row(sq) + 2) SHIELD[0][sq] |= span & rank;
+            }
+        }
+    }
+
+    private static Evaluator defaultEvaluator;
+
+    private final PieceSquareTable table;
+    private final int[] mobilityMg = new int[PieceType.values().length];
+    private final int[] mobilityEg = new int[PieceType.values().length];
+    private final int[] kingAttack = new int[PieceType.values().length];
+    private final int doubledMg, doubledEg;
+    private final int isolatedMg, isolatedEg;
+    private final int[] passedMg;
+    private final int[] passedEg;
+    private final int kingShield;
+
+    public Evaluator(Properties weights) {
+        int types = PieceType.values().length;
+        int[][] midgame = new int[types][];
+        int[][] endgame = new int[types][];
+        for (PieceType type : PieceType.values()) {
+            String name = type.name().toLowerCase(Locale.ROOT);
+            int[] material = pair(weights, "material." + name);
+            midgame[type.ordinal()] = table(weights, "pst." + name, "mg", material[0]);
+            endgame[type.ordinal()] = table(weights, "pst." + name, "eg", material[1]);
+
+            int[] mobility = pair(weights, "mobility." + name);
+            mobilityMg[type.ordinal()] = mobility[0];
+            mobilityEg[type.ordinal()] = mobility[1];
+            kingAttack[type.ordinal()] = pair(weights, "king.attack." + name)[0];
+        }
+        this.table = new PieceSquareTable(midgame, endgame);
+
+        int[] doubled = pair(weights, "pawn.doubled");
+        int[] isolated = pair(weights, "pawn.isolated");
+        this.doubledMg = doubled[0];
+        this.doubledEg = doubled[1];
+        this.isolatedMg = isolated[0];
+        this.isolatedEg = isolated[1];
+        this.passedMg = ranks(weights, "pawn.passed.mg");
+        this.passedEg = ranks(weights, "pawn.passed.eg");
+        this.kingShield = pair(weights, "king.shield")[0];
+    }
+
+    public static synchronized Evaluator getDefault() {
+        if (defaultEvaluator == null) {
+            String path = System.getProperty("chess.eval");
+            defaultEvaluator = path != null ? load(Path.of(path)) : load();
+        }
+        return defaultEvaluator;
+    }
+
+    public static Evaluator load() {
+        return new Evaluator(defaultWeights());
+    }
+
+    static Properties defaultWeights() {
+        Properties weights = new Properties();
+        try (InputStream in = Objects.requireNonNull(Evaluator.class.getClassLoader().getResourceAsStream(RESOURCE), RESOURCE)) {
+            weights.load(in);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return weights;
+    }
+
+    public static Evaluator load(Path path) {
+        Properties weights = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            weights.load(in);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return new Evaluator(weights);
+    }
+
+    public PieceSquareTable getTable() {
+        return table;
+    }
+
+    public int evaluate(Board board, boolean white) {
+        return evaluate(board, white, null);
+    }
+
+    public int evaluate(Board board, boolean white, PawnTable pawnTable) {
+        if (board.getPieceSquareTable() != table) board.setPieceSquareTable(table);
+
+        int mg = board.getMidgameScore(true) - board.getMidgameScore(false);
+        int eg = board.getEndgameScore(true) - board.getEndgameScore(false);
+
+        int pieces = evaluatePieces(board, true) - evaluatePieces(board, false);
+        int pawns = pawnTable == null ? Integer.MIN_VALUE : pawnTable.probe(board.getPawnHash());
+        if (pawns == Integer.MIN_VALUE) {
+            pawns = evaluatePawns(board, true) - evaluatePawns(board, false);
+            if (pawnTable != null) pawnTable.store(board.getPawnHash(), pawns);
+        }
+        mg += midgame(pieces) + midgame(pawns);
+        eg += endgame(pieces) + endgame(pawns);
+
+        int phase = phase(board);
+        int score = (mg * phase + eg * (MAX_PHASE - phase)) / MAX_PHASE;
+        return white ? score : -score;
+    }
+
+    int evaluatePieces(Board board, boolean white) {
+        long occupied = board.getOccupied();
+        long own = board.getPieces(white);
+        int enemyKing = board.getKingSquare(!white);
+        long kingZone = enemyKing == -1 ? 0L : Attacks.king(enemyKing);
+        int mg = 0, eg = 0;
+
+        for (int i = 0; i < board.getPieceCount(white); i++) {
+            int sq = board.getPieceSquare(white, i);
+            PieceType type = board.getPiece(sq).getType();
+            long attacks = switch (type) {
+                case KNIGHT -> Attacks.knight(sq);
+                case BISHOP -> Attacks.bishop(sq, occupied);
+                case ROOK -> Attacks.rook(sq, occupied);
+                case QUEEN -> Attacks.queen(sq, occupied);
+                default -> 0L;
+            };
+            if (attacks == 0L) continue;
+
+            int mobility = Long.bitCount(attacks & ~own);
+            mg += mobility * mobilityMg[type.ordinal()];
+            eg += mobility * mobilityEg[type.ordinal()];
+            mg += Long.bitCount(attacks & kingZone) * kingAttack[type.ordinal()];
+        }
+
+        int king = board.getKingSquare(white);
+        if (king != -1) {
+            long pawns = board.getPieces(Piece.of(PieceType.PAWN, white));
+            mg += Long.bitCount(SHIELD[white ? 1 : 0][king] & pawns) * kingShield;
+        }
+        return pack(mg, eg);
+    }
+
+    int evaluatePawns(Board board, boolean white) {
+        long pawns = board.getPieces(Piece.of(PieceType.PAWN, white));
+        long enemy = board.getPieces(Piece.of(PieceType.PAWN, !white));
+        int side = white ? 1 : 0;
+        int mg = 0, eg = 0;
+
+        for (int col = 0; col < 8; col++) {
+            int count = Long.bitCount(pawns & FILES[col]);
+            if (count == 0) continue;
+            if (count > 1) {
+                mg += (count - 1) * doubledMg;
+                eg += (count - 1) * doubledEg;
+            }
+            if ((pawns & ADJACENT_FILES[col]) == 0) {
+                mg += count * isolatedMg;
+                eg += count * isolatedEg;
+            }
+        }
+
+        for (long bb = pawns; bb != 0; bb &= bb - 1) {
+            int sq = first(bb);
+            if ((PASSED_SPAN[side][sq] & enemy) == 0) {
+                int rank = white ? 7 - row(sq) : row(sq);
+                mg += passedMg[rank];
+                eg += passedEg[rank];
+            }
+        }
+        return pack(mg, eg);
+    }
+
+    private static int phase(Board board) {
+        int phase = 0;
+        for (Piece piece : Piece.values()) {
+            phase += board.getPieceCount(piece) * PHASE[piece.getType().ordinal()];
+        }
+        return Math.min(phase, MAX_PHASE);
+    }
+
+    static int pack(int mg, int eg) {
+        return (eg << 16) + mg;
+    }
+
+    static int midgame(int packed) {
+        return (short) packed;
+    }
+
+    static int endgame(int packed) {
+        return (packed + 0x8000) >> 16;
+    }
+
+    private static int[] pair(Properties weights, String key) {
+        String value = weights.getProperty(key);
+        if (value == null) return new int[2];
+        int[] values = parse(value, key);
+        return values.length == 1 ? new int[]{values[0], values[0]} : values;
+    }
+
+    private static int[] table(Properties weights, String key, String phase, int material) {
+        String value = weights.getProperty(key + "." + phase, weights.getProperty(key));
+        int[] table = value == null ? new int[64] : parse(value, key);
+        if (table.length != 64) throw new IllegalArgumentException(key + " needs 64 values");
+        for (int i = 0; i < 64; i++) table[i] += material;
+        return table;
+    }
+
+    private static int[] ranks(Properties weights, String key) {
+        String value = weights.getProperty(key);
+        int[] ranks = value == null ? new int[8] : parse(value, key);
+        if (ranks.length != 8) throw new IllegalArgumentException(key + " needs 8 values");
+        return ranks;
+    }
+
+    private static int[] parse(String value, String key) {
+        try {
+            return Arrays.stream(value.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Bad weight for " + key + ": " + value, ex);
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package io.arsh.engine;
+
+import io.arsh.game.Board;
+import io.arsh.game.models.Move;
+
+import static io.arsh.engine.Engine.MAX_PLY;
+
+class MoveOrdering {
+
+    private static final int MAX_HISTORY = 1 << 20;
+
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[][][] history = new int[2][64][64];
+    private final int[][] counters = new int[64][64];
+
+    void age() {
+        for (int[] killer : killers) killer[0] = killer[1] = Move.NONE;
+        for (int[][] side : history) {
+            for (int[] from : side) {
+                for (int to = 0; to < 64; to++) from[to] >>= 2;
+            }
+        }
+    }
+
+    int killer(int ply, int slot) {
+        return killers[ply][slot];
+    }
+
+    int counter(Board board) {
+        int last = board.getLastMoveCode();
+        return last == Move.NONE ? Move.NONE : counters[Move.from(last)][Move.to(last)];
+    }
+
+    int history(boolean white, int move) {
+        return history[white ? 1 : 0][Move.from(move)][Move.to(move)];
+    }
+
+    void cutoff(Board board, boolean white, int move, int depth, int ply) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+
+        int last = board.getLastMoveCode();
+        if (last != Move.NONE) counters[Move.from(last)][Move.to(last)] = move;
+
+        int[] from = history[white ? 1 : 0][Move.from(move)];
+        from[Move.to(move)] += depth * depth;
+        if (from[Move.to(move)] > MAX_HISTORY) {
+            for (int[][] side : history) {
+                for (int[] row : side) {
+                    for (int to = 0; to < 64; to++) row[to] >>= 1;
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,185 @@
+package io.arsh.engine;
+
+import io.arsh.game.Board;
+import io.arsh.game.Rules;
+import io.arsh.game.models.Move;
+import io.arsh.game.models.MoveList;
+import io.arsh.game.models.Piece;
+import io.arsh.game.models.PieceType;
+
+class MovePicker {
+
+    private static final int HASH = 0, GENERATE_CAPTURES = 1, CAPTURES = 2, KILLERS = 3,
+            GENERATE_QUIETS = 4, QUIETS = 5, DONE = 6;
+
+    private final MoveOrdering ordering;
+    private final MoveList moves = new MoveList();
+    private final MoveList check = new MoveList();
+    private final int[] special = new int[3];
+    private int[] scores = new int[256];
+
+    private Board board;
+    private boolean white;
+    private boolean quiescence;
+    private int hashMove;
+    private int stage;
+    private int index;
+
+    MovePicker(MoveOrdering ordering) {
+        this.ordering = ordering;
+    }
+
+    void init(Board board, boolean white, int hashMove, int ply) {
+        this.board = board;
+        this.white = white;
+        this.quiescence = false;
+        this.hashMove = isPseudoLegal(hashMove) ? hashMove : Move.NONE;
+        this.stage = HASH;
+
+        special[0] = ordering.killer(ply, 0);
+        special[1] = ordering.killer(ply, 1);
+        special[2] = ordering.counter(board);
+    }
+
+    void initQuiescence(Board board, boolean white) {
+        this.board = board;
+        this.white = white;
+        this.quiescence = true;
+        this.hashMove = Move.NONE;
+        this.stage = GENERATE_CAPTURES;
+    }
+
+    // Returns pseudo-legal moves best first; the caller rejects moves that leave its king in check.
+    int next() {
+        while (true) {
+            switch (stage) {
+                case HASH -> {
+                    stage = GENERATE_CAPTURES;
+                    if (hashMove != Move.NONE) return hashMove;
+                }
+                case GENERATE_CAPTURES -> {
+                    moves.clear();
+                    Rules.generateCaptures(board, white, moves);
+                    scoreCaptures();
+                    index = 0;
+                    stage = CAPTURES;
+                }
+                case CAPTURES -> {
+                    int move = pick();
+                    if (move != Move.NONE) {
+                        if (move != hashMove) return move;
+                        continue;
+                    }
+                    if (quiescence) {
+                        stage = DONE;
+                    } else {
+                        stage = KILLERS;
+                        index = 0;
+                    }
+                }
+                case KILLERS -> {
+                    if (index == special.length) {
+                        stage = GENERATE_QUIETS;
+                        continue;
+                    }
+                    int move = special[index++];
+                    if (isSpecial(move, index - 1) && isPseudoLegal(move)) return move;
+                }
+                case GENERATE_QUIETS -> {
+                    moves.clear();
+                    Rules.generateQuiets(board, white, moves);
+                    scoreQuiets();
+                    index = 0;
+                    stage = QUIETS;
+                }
+                case QUIETS -> {
+                    int move = pick();
+                    if (move == Move.NONE) {
+                        stage = DONE;
+                    } else if (move != hashMove && !isKiller(move)) {
+                        return move;
+                    }
+                }
+                default -> {
+                    return Move.NONE;
+                }
+            }
+        }
+    }
+
+    private int pick() {
+        if (index == moves.size()) return Move.NONE;
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) best = i;
+        }
+        int move = moves.get(best);
+        int score = scores[best];
+        moves.set(best, moves.get(index));
+        scores[best] = scores[index];
+        moves.set(index, move);
+        scores[index] = score;
+        index++;
+        return move;
+    }
+
+    private void scoreCaptures() {
+        ensureCapacity();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int attacker = board.getPiece(Move.from(move)).getType().ordinal();
+            Piece victim = board.getPiece(Move.to(move));
+            int score = 0;
+            if (Move.is(move, Move.CAPTURE)) {
+                int captured = victim == null ? PieceType.PAWN.ordinal() : victim.getType().ordinal();
+                score = (captured + 1) * 8 - attacker;
+            }
+            if (Move.is(move, Move.PROMOTION)) score += PieceType.QUEEN.ordinal() * 8;
+            scores[i] = score;
+        }
+    }
+
+    private void scoreQuiets() {
+        ensureCapacity();
+        for (int i = 0; i < moves.size(); i++) {
+            scores[i] = ordering.history(white, moves.get(i));
+        }
+    }
+
+    private void ensureCapacity() {
+        if (scores.length < moves.size()) scores = new int[moves.size() * 2];
+    }
+
+    private boolean isSpecial(int move, int slot) {
+        if (move == Move.NONE || move == hashMove || Move.is(move, Move.CAPTURE | Move.PROMOTION)) return false;
+        for (int i = 0; i < slot; i++) {
+            if (special[i] == move) return false;
+        }
+        return true;
+    }
+
+    private boolean isKiller(int move) {
+        for (int i = 0; i < special.length; i++) {
+            if (special[i] == move && isSpecial(move, i)) return true;
+        }
+        return false;
+    }
+
+    private boolean isPseudoLegal(int move) {
+        if (move == Move.NONE) return false;
+        Piece piece = board.getPiece(Move.from(move));
+        if (piece == null || piece.isWhite() != white) return false;
+
+        check.clear();
+        if (piece.getType() == PieceType.KING && Move.is(move, Move.CASTLE)) {
+            Rules.generateLegalMoves(board, Move.from(move), check);
+        } else {
+            Rules.generateMoves(board, Move.from(move), check);
+        }
+        for (int i = 0; i < check.size(); i++) {
+            if (check.get(i) == move) return true;
+        }
+        return false;
+    }
+
+}
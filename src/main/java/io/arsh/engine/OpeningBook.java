@@ -0,0 +1,183 @@
+package io.arsh.engine;
+
+import io.arsh.game.Board;
+import io.arsh.game.Fen;
+import io.arsh.game.Rules;
+import io.arsh.game.models.Move;
+import io.arsh.game.models.MoveList;
+import io.arsh.pgn.PgnGame;
+import io.arsh.pgn.PgnReader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Entries are 12 bytes (position hash, from | to << 6, weight) sorted by hash, after an 8 byte magic.
+public class OpeningBook {
+
+    private static final long MAGIC = 0x41525348424F4F4BL;
+    private static final int HEADER = 8;
+    private static final int ENTRY = 12;
+
+    private final ByteBuffer entries;
+    private final int size;
+
+    private OpeningBook(ByteBuffer entries) {
+        this.entries = entries;
+        this.size = entries.limit() / ENTRY;
+    }
+
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER || (length - HEADER) % ENTRY != 0 || length > Integer.MAX_VALUE) {
+                throw new IOException("Not an opening book: " + path);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length).order(ByteOrder.BIG_ENDIAN);
+            if (buffer.getLong(0) != MAGIC) throw new IOException("Not an opening book: " + path);
+            return new OpeningBook(buffer.position(HEADER).slice().order(ByteOrder.BIG_ENDIAN));
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public List<Move> getMoves(Board board) {
+        List<Move> moves = new ArrayList<>();
+        MoveList legal = legalMoves(board);
+        for (int i = first(board.getHash()); i < size && key(i) == board.getHash(); i++) {
+            int move = match(legal, move(i));
+            if (move != Move.NONE) moves.add(new Move(move));
+        }
+        return moves;
+    }
+
+    // Picks a book move with probability proportional to its weight, or returns null when out of book.
+    public Move pick(Board board, Random random) {
+        long hash = board.getHash();
+        int start = first(hash);
+        int end = start;
+        long total = 0;
+        while (end < size && key(end) == hash) total += weight(end++);
+        if (total == 0) return null;
+
+        MoveList legal = legalMoves(board);
+        long target = (long) (random.nextDouble() * total);
+        int fallback = Move.NONE;
+        for (int i = start; i < end; i++) {
+            int move = match(legal, move(i));
+            if (move == Move.NONE) continue;
+            if (fallback == Move.NONE) fallback = move;
+            target -= weight(i);
+            if (target < 0) return new Move(move);
+        }
+        return fallback == Move.NONE ? null : new Move(fallback);
+    }
+
+    private int first(long hash) {
+        int low = 0, high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(key(mid), hash) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private long key(int index) {
+        return entries.getLong(index * ENTRY);
+    }
+
+    private int move(int index) {
+        return entries.getShort(index * ENTRY + 8) & 0xFFFF;
+    }
+
+    private int weight(int index) {
+        return entries.getShort(index * ENTRY + 10) & 0xFFFF;
+    }
+
+    private static MoveList legalMoves(Board board) {
+        MoveList legal = new MoveList();
+        Rules.generateLegalMoves(board, board.isWhiteToMove(), legal);
+        return legal;
+    }
+
+    private static int match(MoveList legal, int fromTo) {
+        for (int i = 0; i < legal.size(); i++) {
+            if ((legal.get(i) & 0xFFF) == fromTo) return legal.get(i);
+        }
+        return Move.NONE;
+    }
+
+    // Counts the moves played in the first plies of every game and keeps those seen at least minGames times.
+    public static int build(Path pgn, Path out, int maxPlies, int minGames) throws IOException {
+        Map<Long, Map<Integer, Integer>> counts = new HashMap<>();
+        try (PgnReader reader = PgnReader.open(pgn)) {
+            for (String text = reader.nextText(); text != null; text = reader.nextText()) {
+                PgnGame game;
+                try {
+                    game = PgnReader.parse(text);
+                } catch (IllegalArgumentException ex) {
+                    System.err.println(ex.getMessage());
+                    continue;
+                }
+                Board board = Fen.parse(game.getStartFen());
+                int[] moves = game.getMoves();
+                for (int ply = 0; ply < Math.min(maxPlies, moves.length); ply++) {
+                    counts.computeIfAbsent(board.getHash(), key -> new HashMap<>())
+                            .merge(moves[ply] & 0xFFF, 1, Integer::sum);
+                    board.makeMove(moves[ply]);
+                }
+            }
+        }
+
+        List<long[]> rows = new ArrayList<>();
+        for (Map.Entry<Long, Map<Integer, Integer>> position : counts.entrySet()) {
+            for (Map.Entry<Integer, Integer> move : position.getValue().entrySet()) {
+                if (move.getValue() < minGames) continue;
+                rows.add(new long[]{position.getKey(), move.getKey(), Math.min(move.getValue(), 0xFFFF)});
+            }
+        }
+        rows.sort((a, b) -> a[0] != b[0] ? Long.compareUnsigned(a[0], b[0]) : Long.compare(b[2], a[2]));
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + rows.size() * ENTRY).order(ByteOrder.BIG_ENDIAN);
+        buffer.putLong(MAGIC);
+        for (long[] row : rows) {
+            buffer.putLong(row[0]).putShort((short) row[1]).putShort((short) row[2]);
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+        return rows.size();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: OpeningBook <games.pgn> <out.book> [--plies=N] [--min-games=N]");
+            System.exit(2);
+        }
+        int plies = 16, minGames = 2;
+        for (int i = 2; i < args.length; i++) {
+            String[] option = args[i].split("=", 2);
+            switch (option[0]) {
+                case "--plies" -> plies = Integer.parseInt(option[1]);
+                case "--min-games" -> minGames = Integer.parseInt(option[1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        int entries = build(Path.of(args[0]), Path.of(args[1]), plies, minGames);
+        System.out.println("wrote " + entries + " entries to " + args[1]);
+    }
+
+}
@@ -0,0 +1,44 @@
+package io.arsh.engine;
+
+public class PawnTable {
+
+    private final long[] keys;
+    private final int[] scores;
+    private final boolean[] used;
+    private final int mask;
+    private long probes;
+    private long hits;
+
+    public PawnTable(int entries) {
+        int size = Integer.highestOneBit(Math.max(1, entries));
+        keys = new long[size];
+        scores = new int[size];
+        used = new boolean[size];
+        mask = size - 1;
+    }
+
+    // Returns the cached score, or Integer.MIN_VALUE on a miss.
+    public int probe(long key) {
+        probes++;
+        int index = (int) key & mask;
+        if (!used[index] || keys[index] != key) return Integer.MIN_VALUE;
+        hits++;
+        return scores[index];
+    }
+
+    public void store(long key, int score) {
+        int index = (int) key & mask;
+        keys[index] = key;
+        scores[index] = score;
+        used[index] = true;
+    }
+
+    public long getProbes() {
+        return probes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+}
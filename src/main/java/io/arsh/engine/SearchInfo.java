@@ -0,0 +1,78 @@
+package io.arsh.engine;
+
+import static io.arsh.engine.Engine.MATE;
+import static io.arsh.engine.Engine.MAX_PLY;
+
+// One completed iteration of a search, reported from the side to move's point of view.
+public class SearchInfo {
+
+    private final int depth;
+    private final int score;
+    private final long[] threadNodes;
+    private final long elapsedMillis;
+    private final double pawnHitRate;
+    private final int[] line;
+
+    SearchInfo(int depth, int score, long[] threadNodes, long elapsedMillis, double pawnHitRate, int[] line) {
+        this.depth = depth;
+        this.score = score;
+        this.threadNodes = threadNodes;
+        this.elapsedMillis = elapsedMillis;
+        this.pawnHitRate = pawnHitRate;
+        this.line = line;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public long getNodes() {
+        long nodes = 0;
+        for (long count : threadNodes) nodes += count;
+        return nodes;
+    }
+
+    public int getThreads() {
+        return threadNodes.length;
+    }
+
+    public long getNodes(int thread) {
+        return threadNodes[thread];
+    }
+
+    // Per thread, so that a helper starved of CPU time stands out against the others.
+    public long getNodesPerSecond(int thread) {
+        return elapsedMillis == 0 ? 0 : threadNodes[thread] * 1000 / elapsedMillis;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    // Share of pawn structure evaluations answered by the pawn hash table, over all threads.
+    public double getPawnHitRate() {
+        return pawnHitRate;
+    }
+
+    public int[] getLine() {
+        return line.clone();
+    }
+
+    public boolean isMate() {
+        return Math.abs(score) >= MATE - MAX_PLY;
+    }
+
+    // Pawns such as "+0.35", or moves to mate such as "#3" and "#-2".
+    public String getScoreText() {
+        if (isMate()) {
+            int moves = (MATE - Math.abs(score) + 1) / 2;
+            return score > 0 ? "#" + moves : "#-" + moves;
+        }
+        return String.format("%+.2f", score / 100.0);
+    }
+
+}
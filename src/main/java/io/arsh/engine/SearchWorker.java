@@ -0,0 +1,270 @@
+package io.arsh.engine;
+
+import io.arsh.game.Board;
+import io.arsh.game.Rules;
+import io.arsh.game.models.Move;
+import io.arsh.game.models.MoveList;
+import io.arsh.tablebase.Tablebase;
+
+import java.util.Arrays;
+
+import static io.arsh.engine.Engine.INFINITY;
+import static io.arsh.engine.Engine.MATE;
+import static io.arsh.engine.Engine.MAX_PLY;
+
+class SearchWorker {
+
+    private static final int PAWN_TABLE_ENTRIES = 1 << 14;
+
+    private final Engine engine;
+    private final int id;
+    private final TranspositionTable table;
+    private final Evaluator evaluator = Evaluator.getDefault();
+    private final PawnTable pawnTable = new PawnTable(PAWN_TABLE_ENTRIES);
+    private final MoveOrdering ordering = new MoveOrdering();
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY + 1];
+    private final MoveList root = new MoveList();
+
+    private Board board;
+    private Tablebase tablebase;
+    private boolean white;
+    private boolean aborted;
+    private long nodes;
+    private long tablebaseHits;
+    private int completedDepth;
+    private int bestMove;
+    private int bestScore;
+
+    SearchWorker(Engine engine, int id, TranspositionTable table) {
+        this.engine = engine;
+        this.id = id;
+        this.table = table;
+        for (int i = 0; i < pickers.length; i++) pickers[i] = new MovePicker(ordering);
+    }
+
+    void prepare(Board position, boolean white, MoveList rootMoves) {
+        this.board = new Board(position);
+        board.setPieceSquareTable(evaluator.getTable());
+        this.tablebase = engine.getTablebase();
+        this.white = white;
+        root.clear();
+        for (int i = 0; i < rootMoves.size(); i++) root.add(rootMoves.get(i));
+        aborted = false;
+        nodes = 0;
+        tablebaseHits = 0;
+        completedDepth = 0;
+        bestMove = root.get(0);
+        bestScore = 0;
+        ordering.age();
+    }
+
+    void search(int maxDepth) {
+        long entry = table.probe(board.getHash());
+        if (entry != 0L) moveToFront(root, TranspositionTable.move(entry));
+
+        for (int depth = 1 + (id & 1); depth <= maxDepth; depth++) {
+            int alpha = -INFINITY;
+            int iterationBest = Move.NONE;
+            for (int i = 0; i < root.size(); i++) {
+                int move = root.get(i);
+                board.makeMove(move);
+                int score = -negamax(!white, depth - 1, 1, -INFINITY, -alpha);
+                board.unmakeMove();
+                if (aborted) break;
+                if (score > alpha) {
+                    alpha = score;
+                    iterationBest = move;
+                }
+            }
+            if (aborted) break;
+
+            bestMove = iterationBest;
+            bestScore = alpha;
+            completedDepth = depth;
+            table.store(board.getHash(), bestMove, alpha, depth, TranspositionTable.EXACT);
+            moveToFront(root, bestMove);
+            if (id == 0) engine.report(depth, alpha, line(depth));
+            if (Math.abs(alpha) >= MATE - MAX_PLY) break;
+        }
+    }
+
+    long getNodes() {
+        return nodes;
+    }
+
+    long getTablebaseHits() {
+        return tablebaseHits;
+    }
+
+    PawnTable getPawnTable() {
+        return pawnTable;
+    }
+
+    int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    int getBestMove() {
+        return bestMove;
+    }
+
+    int getBestScore() {
+        return bestScore;
+    }
+
+    // Follows the hash moves from the root while they stay legal and the position does not repeat.
+    private int[] line(int length) {
+        int[] line = new int[length];
+        MoveList legal = new MoveList();
+        boolean side = white;
+        int count = 0;
+        while (count < length) {
+            int move = bestMove;
+            if (count > 0) {
+                long entry = table.probe(board.getHash());
+                if (entry == 0L) break;
+                move = TranspositionTable.move(entry);
+            }
+            legal.clear();
+            Rules.generateLegalMoves(board, side, legal);
+            if (!legal.contains(move)) break;
+            board.makeMove(move);
+            line[count++] = move;
+            side = !side;
+            if (board.isRepetition()) break;
+        }
+        for (int i = 0; i < count; i++) board.unmakeMove();
+        return Arrays.copyOf(line, count);
+    }
+
+    private int negamax(boolean white, int depth, int ply, int alpha, int beta) {
+        if (depth <= 0) return quiesce(white, ply, alpha, beta);
+        if (shouldStop()) return 0;
+        nodes++;
+
+        // A repeated position is scored as a draw already, since the side that can avoid it would.
+        if (board.isRepetition() || board.isFiftyMoveRule() || board.isInsufficientMaterial()) return 0;
+
+        int known = probeTablebase(ply);
+        if (known != Tablebase.UNKNOWN) return known;
+
+        long key = board.getHash();
+        long entry = table.probe(key);
+        int hashMove = Move.NONE;
+        if (entry != 0L) {
+            hashMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || bound == TranspositionTable.LOWER && score >= beta
+                        || bound == TranspositionTable.UPPER && score <= alpha) {
+                    return score;
+                }
+            }
+        }
+
+        MovePicker picker = pickers[ply];
+        picker.init(board, white, hashMove, ply);
+
+        int originalAlpha = alpha;
+        int bestMove = Move.NONE;
+        int legal = 0;
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            board.makeMove(move);
+            if (Rules.isInCheck(board, white)) {
+                board.unmakeMove();
+                continue;
+            }
+            legal++;
+            int score = -negamax(!white, depth - 1, ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (aborted) return 0;
+            if (score >= beta) {
+                if (!Move.is(move, Move.CAPTURE | Move.PROMOTION)) ordering.cutoff(board, white, move, depth, ply);
+                table.store(key, move, toTable(beta, ply), depth, TranspositionTable.LOWER);
+                return beta;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestMove = move;
+            }
+        }
+
+        if (legal == 0) {
+            return Rules.isInCheck(board, white) ? -MATE + ply : 0;
+        }
+
+        int bound = alpha > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, toTable(alpha, ply), depth, bound);
+        return alpha;
+    }
+
+    private int quiesce(boolean white, int ply, int alpha, int beta) {
+        if (shouldStop()) return 0;
+        nodes++;
+
+        int known = probeTablebase(ply);
+        if (known != Tablebase.UNKNOWN) return known;
+
+        int standPat = evaluator.evaluate(board, white, pawnTable);
+        if (standPat >= beta || ply >= MAX_PLY) return standPat;
+        if (standPat > alpha) alpha = standPat;
+
+        MovePicker picker = pickers[ply];
+        picker.initQuiescence(board, white);
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            board.makeMove(move);
+            if (Rules.isInCheck(board, white)) {
+                board.unmakeMove();
+                continue;
+            }
+            int score = -quiesce(!white, ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (aborted) return 0;
+            if (score >= beta) return beta;
+            if (score > alpha) alpha = score;
+        }
+        return alpha;
+    }
+
+    // Positions covered by a table are scored exactly, with the distance to mate counted from the root.
+    private int probeTablebase(int ply) {
+        if (tablebase == null) return Tablebase.UNKNOWN;
+        int value = tablebase.probe(board);
+        if (value == Tablebase.UNKNOWN) return Tablebase.UNKNOWN;
+        tablebaseHits++;
+        int plies = Tablebase.plies(value);
+        return value > 0 ? MATE - ply - plies : value < 0 ? -MATE + ply + plies : 0;
+    }
+
+    private boolean shouldStop() {
+        if (engine.isStopped() || (nodes & 1023) == 0 && (engine.isOutOfTime() || Thread.currentThread().isInterrupted())) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    private static int toTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) return score + ply;
+        if (score <= -MATE + MAX_PLY) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) return score - ply;
+        if (score <= -MATE + MAX_PLY) return score + ply;
+        return score;
+    }
+
+    static void moveToFront(MoveList moves, int move) {
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.get(i) == move) {
+                for (int j = i; j > 0; j--) moves.set(j, moves.get(j - 1));
+                moves.set(0, move);
+                return;
+            }
+        }
+    }
+
+}
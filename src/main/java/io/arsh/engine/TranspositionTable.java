@@ -0,0 +1,80 @@
+package io.arsh.engine;
+
+public class TranspositionTable {
+
+    public static final int EXACT = 0, LOWER = 1, UPPER = 2;
+
+    private static final int SCORE_OFFSET = 1 << 21;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+    private volatile int generation;
+
+    public TranspositionTable(int sizeMb) {
+        int entries = Integer.highestOneBit(Math.max(1, sizeMb) * (1024 * 1024 / 16));
+        keys = new long[entries];
+        data = new long[entries];
+        mask = entries - 1;
+    }
+
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    public void clear() {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = 0L;
+            data[i] = 0L;
+        }
+    }
+
+    public long probe(long key) {
+        int index = (int) key & mask;
+        long entry = data[index];
+        if (entry == 0L || (keys[index] ^ entry) != key) return 0L;
+        return entry;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = (int) key & mask;
+        long existing = data[index];
+        if (existing != 0L && (keys[index] ^ existing) != key
+                && generation(existing) == generation && depth(existing) > depth) {
+            return;
+        }
+        if (move == 0 && existing != 0L && (keys[index] ^ existing) == key) {
+            move = move(existing);
+        }
+
+        long entry = (move & 0xFFFFFL)
+                | (long) (score + SCORE_OFFSET) << 20
+                | (long) (depth & 0xFF) << 42
+                | (long) bound << 50
+                | (long) generation << 52
+                | 1L << 63;
+        data[index] = entry;
+        keys[index] = key ^ entry;
+    }
+
+    public static int move(long entry) {
+        return (int) (entry & 0xFFFFF);
+    }
+
+    public static int score(long entry) {
+        return (int) (entry >>> 20 & 0x3FFFFF) - SCORE_OFFSET;
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 42 & 0xFF);
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> 50 & 3);
+    }
+
+    private static int generation(long entry) {
+        return (int) (entry >>> 52 & 0xFF);
+    }
+
+}
@@ -2,131 +2,462 @@ package io.arsh.game;
 
 import io.arsh.game.models.Move;
 import io.arsh.game.models.Piece;
+import io.arsh.game.models.PieceType;
+
+import java.util.Arrays;
+
+import static io.arsh.game.Bitboards.*;
 
 public class Board {
 
-    private final Piece[][] pieces;
-    private final boolean[][] moved;
-    private Move lastMove;
+    private static final int BLACK = 0, WHITE = 1;
+    private static final int CASTLE = 1 << 22, PROMOTION = 1 << 23;
+    private static final int SEEN_MASK = (1 << 12) - 1;
 
-    public Board() {
-        pieces = new Piece[8][8];
-        moved = new boolean[8][8];
-
-        pieces[0][0] = Piece.BLACK_ROOK;
-        pieces[0][1] = Piece.BLACK_KNIGHT;
-        pieces[0][2] = Piece.BLACK_BISHOP;
-        pieces[0][3] = Piece.BLACK_QUEEN;
-        pieces[0][4] = Piece.BLACK_KING;
-        pieces[0][5] = Piece.BLACK_BISHOP;
-        pieces[0][6] = Piece.BLACK_KNIGHT;
-        pieces[0][7] = Piece.BLACK_ROOK;
-        for (int i = 0; i < 8; i++) {
-            pieces[1][i] = Piece.BLACK_PAWN;
-        }
+    private final long[] bitboards = new long[Piece.values().length];
+    private final long[] colors = new long[2];
+    private final Piece[] squares = new Piece[64];
+    private final int[][] pieceList = new int[2][16];
+    private final int[] pieceCount = new int[2];
+    private final int[] listIndex = new int[64];
+    private final int[] counts = new int[Piece.values().length];
+    private final int[] material = new int[2];
+    private final int[] midgame = new int[2];
+    private final int[] endgame = new int[2];
+    private final int[] kingSquare = {-1, -1};
+    private long occupied;
+    private long moved;
+    private int lastMove = Move.NONE;
+    private boolean whiteToMove = true;
+    private long hash;
+    private long pawnHash;
+    private PieceSquareTable table = PieceSquareTable.NONE;
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
 
-        pieces[7][0] = Piece.WHITE_ROOK;
-        pieces[7][1] = Piece.WHITE_KNIGHT;
-        pieces[7][2] = Piece.WHITE_BISHOP;
-        pieces[7][3] = Piece.WHITE_QUEEN;
-        pieces[7][4] = Piece.WHITE_KING;
-        pieces[7][5] = Piece.WHITE_BISHOP;
-        pieces[7][6] = Piece.WHITE_KNIGHT;
-        pieces[7][7] = Piece.WHITE_ROOK;
-        for (int i = 0; i < 8; i++) {
-            pieces[6][i] = Piece.WHITE_PAWN;
-        }
+    // Occurrences of the positions on the undo stack plus the current one, bucketed by hash.
+    // A position can only repeat when its bucket holds more than one, so most checks never scan.
+    private int[] seen = new int[SEEN_MASK + 1];
+
+    private long[] undoHash = new long[64];
+    private long[] undoMoved = new long[64];
+    private int[] undoState = new int[64];
+    private int[] undoLastMove = new int[64];
+    private int[] undoHalfmove = new int[64];
+    private int ply;
 
+    public Board() {
+        reset();
     }
 
     public Board(Board other) {
-        pieces = new Piece[8][8];
-        moved = new boolean[8][8];
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                pieces[r][c] = other.pieces[r][c];
-                moved[r][c] = other.moved[r][c];
-            }
-        }
-        if (other.lastMove != null) {
-            lastMove = new Move(other.lastMove.fromRow, other.lastMove.fromCol,
-                    other.lastMove.toRow, other.lastMove.toCol);
+        System.arraycopy(other.bitboards, 0, bitboards, 0, bitboards.length);
+        System.arraycopy(other.colors, 0, colors, 0, colors.length);
+        System.arraycopy(other.squares, 0, squares, 0, squares.length);
+        for (int c = 0; c < 2; c++) {
+            System.arraycopy(other.pieceList[c], 0, pieceList[c], 0, pieceList[c].length);
         }
+        System.arraycopy(other.pieceCount, 0, pieceCount, 0, pieceCount.length);
+        System.arraycopy(other.listIndex, 0, listIndex, 0, listIndex.length);
+        System.arraycopy(other.counts, 0, counts, 0, counts.length);
+        System.arraycopy(other.material, 0, material, 0, material.length);
+        System.arraycopy(other.midgame, 0, midgame, 0, midgame.length);
+        System.arraycopy(other.endgame, 0, endgame, 0, endgame.length);
+        System.arraycopy(other.kingSquare, 0, kingSquare, 0, kingSquare.length);
+        occupied = other.occupied;
+        moved = other.moved;
+        lastMove = other.lastMove;
+        whiteToMove = other.whiteToMove;
+        hash = other.hash;
+        pawnHash = other.pawnHash;
+        table = other.table;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        seen = other.seen.clone();
+        undoHash = other.undoHash.clone();
+        undoMoved = other.undoMoved.clone();
+        undoState = other.undoState.clone();
+        undoLastMove = other.undoLastMove.clone();
+        undoHalfmove = other.undoHalfmove.clone();
+        ply = other.ply;
+    }
+
+    public boolean isWhiteToMove() {
+        return whiteToMove;
+    }
+
+    public long getHash() {
+        return hash;
     }
 
     public Piece getPiece(int row, int col) {
-        return pieces[row][col];
+        return squares[square(row, col)];
+    }
+
+    public Piece getPiece(int square) {
+        return squares[square];
     }
 
     public boolean hasMoved(int row, int col) {
-        return moved[row][col];
+        return (moved & bit(row, col)) != 0;
     }
 
     public Move getLastMove() {
+        return lastMove == Move.NONE ? null : new Move(lastMove);
+    }
+
+    public int getLastMoveCode() {
         return lastMove;
     }
 
+    public int getEnPassantSquare() {
+        if (lastMove == Move.NONE) return -1;
+        int from = Move.from(lastMove), to = Move.to(lastMove);
+        Piece piece = squares[to];
+        if (piece == null || piece.getType() != PieceType.PAWN) return -1;
+        if (Math.abs(to - from) != 16) return -1;
+        return (from + to) / 2;
+    }
+
+    // The en passant square only counts for the hash when the side to move has a pawn that can capture on it,
+    // so that a double push makes no difference to the key of an otherwise identical position.
+    private int getHashedEnPassantSquare() {
+        int square = getEnPassantSquare();
+        if (square == -1) return -1;
+        Piece pawn = Piece.of(PieceType.PAWN, whiteToMove);
+        return (Attacks.pawn(square, !whiteToMove) & getPieces(pawn)) != 0 ? square : -1;
+    }
+
+    public long getPieces(Piece piece) {
+        return bitboards[piece.ordinal()];
+    }
+
+    public long getPieces(boolean white) {
+        return colors[white ? WHITE : BLACK];
+    }
+
+    public long getOccupied() {
+        return occupied;
+    }
+
+    public int getKingSquare(boolean white) {
+        return kingSquare[white ? WHITE : BLACK];
+    }
+
+    public int getPieceCount(boolean white) {
+        return pieceCount[white ? WHITE : BLACK];
+    }
+
+    public int getPieceSquare(boolean white, int index) {
+        return pieceList[white ? WHITE : BLACK][index];
+    }
+
+    public int getPieceCount(Piece piece) {
+        return counts[piece.ordinal()];
+    }
+
+    public int getMaterial(boolean white) {
+        return material[white ? WHITE : BLACK];
+    }
+
+    public long getPawnHash() {
+        return pawnHash;
+    }
+
+    public PieceSquareTable getPieceSquareTable() {
+        return table;
+    }
+
+    public void setPieceSquareTable(PieceSquareTable table) {
+        this.table = table;
+        midgame[BLACK] = midgame[WHITE] = 0;
+        endgame[BLACK] = endgame[WHITE] = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            Piece piece = squares[sq];
+            if (piece == null) continue;
+            int color = piece.isWhite() ? WHITE : BLACK;
+            midgame[color] += table.midgame(piece, sq);
+            endgame[color] += table.endgame(piece, sq);
+        }
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    // How often the current position has occurred since the last capture or pawn move, itself included.
+    public int getRepetitionCount() {
+        if (seen[(int) hash & SEEN_MASK] < 2) return 1;
+        int count = 1;
+        for (int i = ply - 2; i >= Math.max(0, ply - halfmoveClock); i -= 2) {
+            if (undoHash[i] == hash) count++;
+        }
+        return count;
+    }
+
+    public boolean isRepetition() {
+        return getRepetitionCount() >= 2;
+    }
+
+    public boolean isThreefoldRepetition() {
+        return getRepetitionCount() >= 3;
+    }
+
+    public boolean isFiftyMoveRule() {
+        return halfmoveClock >= 100;
+    }
+
+    public boolean isSeventyFiveMoveRule() {
+        return halfmoveClock >= 150;
+    }
+
+    // No sequence of legal moves can end in mate: bare kings, a single minor piece,
+    // or only bishops that all stand on squares of one colour.
+    public boolean isInsufficientMaterial() {
+        long heavy = bitboards[Piece.WHITE_PAWN.ordinal()] | bitboards[Piece.BLACK_PAWN.ordinal()]
+                | bitboards[Piece.WHITE_ROOK.ordinal()] | bitboards[Piece.BLACK_ROOK.ordinal()]
+                | bitboards[Piece.WHITE_QUEEN.ordinal()] | bitboards[Piece.BLACK_QUEEN.ordinal()];
+        if (heavy != 0) return false;
+        long knights = bitboards[Piece.WHITE_KNIGHT.ordinal()] | bitboards[Piece.BLACK_KNIGHT.ordinal()];
+        long bishops = bitboards[Piece.WHITE_BISHOP.ordinal()] | bitboards[Piece.BLACK_BISHOP.ordinal()];
+        if (Long.bitCount(knights | bishops) <= 1) return true;
+        return knights == 0 && ((bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0);
+    }
+
+    public int getMidgameScore(boolean white) {
+        return midgame[white ? WHITE : BLACK];
+    }
+
+    public int getEndgameScore(boolean white) {
+        return endgame[white ? WHITE : BLACK];
+    }
+
     public void movePiece(int fromRow, int fromCol, int toRow, int toCol) {
-        Piece moving = pieces[fromRow][fromCol];
+        makeMove(fromRow, fromCol, toRow, toCol);
+    }
+
+    public void makeMove(int fromRow, int fromCol, int toRow, int toCol) {
+        makeMove(Move.encode(square(fromRow, fromCol), square(toRow, toCol), 0));
+    }
+
+    public void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int fromCol = col(from), toRow = row(to), toCol = col(to);
+        Piece moving = squares[from];
         if (moving == null) return;
 
-        if (moving.name().contains("KING") && Math.abs(toCol - fromCol) == 2) {
+        boolean king = moving.getType() == PieceType.KING;
+        boolean pawn = moving.getType() == PieceType.PAWN;
+        int state = from | to << 6;
+        long previousMoved = moved;
+        long previousHash = hash;
+        hash ^= Zobrist.castling(moved) ^ Zobrist.enPassant(getHashedEnPassantSquare());
+
+        if (king && Math.abs(toCol - fromCol) == 2) {
             if (toCol == 6) {
-                pieces[toRow][5] = pieces[toRow][7];
-                pieces[toRow][7] = null;
-                moved[toRow][5] = true;
+                castle(square(toRow, 7), square(toRow, 5));
             } else if (toCol == 2) {
-                pieces[toRow][3] = pieces[toRow][0];
-                pieces[toRow][0] = null;
-                moved[toRow][3] = true;
+                castle(square(toRow, 0), square(toRow, 3));
             }
+            state |= CASTLE;
         }
 
-        if (moving.name().contains("PAWN") && fromCol != toCol && pieces[toRow][toCol] == null) {
-            pieces[fromRow][toCol] = null;
+        int captureSquare = to;
+        if (pawn && fromCol != toCol && squares[to] == null) {
+            captureSquare = square(row(from), toCol);
+        }
+        if (squares[captureSquare] != null) {
+            int index = listIndex[captureSquare];
+            Piece captured = capture(captureSquare);
+            state |= captureSquare << 12 | (captured.ordinal() + 1) << 18 | index << 24;
         }
 
-        pieces[toRow][toCol] = moving;
-        pieces[fromRow][fromCol] = null;
-        moved[toRow][toCol] = true;
+        shift(from, to);
+        moved |= bit(from) | bit(to);
 
-        if (moving == Piece.WHITE_PAWN && toRow == 0) {
-            pieces[toRow][toCol] = Piece.WHITE_QUEEN;
-        } else if (moving == Piece.BLACK_PAWN && toRow == 7) {
-            pieces[toRow][toCol] = Piece.BLACK_QUEEN;
+        if (pawn && (toRow == 0 || toRow == 7)) {
+            promote(to, Piece.of(PieceType.QUEEN, moving.isWhite()));
+            state |= PROMOTION;
         }
 
-        lastMove = new Move(fromRow, fromCol, toRow, toCol);
+        push(state, previousMoved, previousHash);
+        lastMove = Move.encode(from, to, 0);
+        halfmoveClock = pawn || (state >>> 18 & 15) != 0 ? 0 : halfmoveClock + 1;
+        if (!whiteToMove) fullmoveNumber++;
+        hash ^= Zobrist.side(whiteToMove);
+        whiteToMove = !whiteToMove;
+        hash ^= Zobrist.side(whiteToMove) ^ Zobrist.castling(moved) ^ Zobrist.enPassant(getHashedEnPassantSquare());
+        seen[(int) hash & SEEN_MASK]++;
     }
 
-    public void reset() {
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                pieces[r][c] = null;
-                moved[r][c] = false;
+    public void unmakeMove() {
+        if (ply == 0) return;
+        seen[(int) hash & SEEN_MASK]--;
+        ply--;
+        int state = undoState[ply];
+        int from = state & 63;
+        int to = state >>> 6 & 63;
+        int captureSquare = state >>> 12 & 63;
+        int captured = state >>> 18 & 15;
+        int index = state >>> 24 & 15;
+
+        if ((state & PROMOTION) != 0) {
+            promote(to, Piece.of(PieceType.PAWN, squares[to].isWhite()));
+        }
+        shift(to, from);
+
+        if ((state & CASTLE) != 0) {
+            int row = row(to);
+            if (col(to) == 6) {
+                castle(square(row, 5), square(row, 7));
+            } else {
+                castle(square(row, 3), square(row, 0));
             }
         }
-        lastMove = null;
-
-        pieces[0][0] = Piece.BLACK_ROOK;
-        pieces[0][1] = Piece.BLACK_KNIGHT;
-        pieces[0][2] = Piece.BLACK_BISHOP;
-        pieces[0][3] = Piece.BLACK_QUEEN;
-        pieces[0][4] = Piece.BLACK_KING;
-        pieces[0][5] = Piece.BLACK_BISHOP;
-        pieces[0][6] = Piece.BLACK_KNIGHT;
-        pieces[0][7] = Piece.BLACK_ROOK;
-        for (int i = 0; i < 8; i++) pieces[1][i] = Piece.BLACK_PAWN;
-
-        pieces[7][0] = Piece.WHITE_ROOK;
-        pieces[7][1] = Piece.WHITE_KNIGHT;
-        pieces[7][2] = Piece.WHITE_BISHOP;
-        pieces[7][3] = Piece.WHITE_QUEEN;
-        pieces[7][4] = Piece.WHITE_KING;
-        pieces[7][5] = Piece.WHITE_BISHOP;
-        pieces[7][6] = Piece.WHITE_KNIGHT;
-        pieces[7][7] = Piece.WHITE_ROOK;
-        for (int i = 0; i < 8; i++) pieces[6][i] = Piece.WHITE_PAWN;
-    }
-
-}
\ No newline at end of file
+
+        if (captured != 0) {
+            restore(captureSquare, Piece.values()[captured - 1], index);
+        }
+
+        moved = undoMoved[ply];
+        lastMove = undoLastMove[ply];
+        hash = undoHash[ply];
+        halfmoveClock = undoHalfmove[ply];
+        whiteToMove = !whiteToMove;
+        if (!whiteToMove) fullmoveNumber--;
+    }
+
+    public void reset() {
+        Fen.load(this, Fen.START);
+    }
+
+    void setup(Piece[] layout, boolean whiteToMove, long moved, int lastMove, int halfmoveClock, int fullmoveNumber) {
+        for (int i = 0; i < bitboards.length; i++) bitboards[i] = 0L;
+        colors[BLACK] = colors[WHITE] = 0L;
+        for (int sq = 0; sq < 64; sq++) squares[sq] = null;
+        for (int i = 0; i < counts.length; i++) counts[i] = 0;
+        pieceCount[BLACK] = pieceCount[WHITE] = 0;
+        material[BLACK] = material[WHITE] = 0;
+        midgame[BLACK] = midgame[WHITE] = 0;
+        endgame[BLACK] = endgame[WHITE] = 0;
+        kingSquare[BLACK] = kingSquare[WHITE] = -1;
+        occupied = 0L;
+        hash = 0L;
+        pawnHash = 0L;
+        ply = 0;
+
+        for (int sq = 0; sq < 64; sq++) {
+            if (layout[sq] != null) add(sq, layout[sq]);
+        }
+        this.moved = moved;
+        this.lastMove = lastMove;
+        this.whiteToMove = whiteToMove;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+        hash ^= Zobrist.castling(moved) ^ Zobrist.enPassant(getHashedEnPassantSquare()) ^ Zobrist.side(whiteToMove);
+        Arrays.fill(seen, 0);
+        seen[(int) hash & SEEN_MASK] = 1;
+    }
+
+    private void place(int square, Piece piece) {
+        long bit = bit(square);
+        int color = piece.isWhite() ? WHITE : BLACK;
+        squares[square] = piece;
+        bitboards[piece.ordinal()] |= bit;
+        colors[color] |= bit;
+        occupied |= bit;
+        counts[piece.ordinal()]++;
+        material[color] += piece.getValue();
+        midgame[color] += table.midgame(piece, square);
+        endgame[color] += table.endgame(piece, square);
+        hash ^= Zobrist.piece(piece, square);
+        if (piece.getType() == PieceType.PAWN) pawnHash ^= Zobrist.piece(piece, square);
+        if (piece.getType() == PieceType.KING) kingSquare[color] = square;
+    }
+
+    private Piece clear(int square) {
+        Piece piece = squares[square];
+        long bit = bit(square);
+        int color = piece.isWhite() ? WHITE : BLACK;
+        squares[square] = null;
+        bitboards[piece.ordinal()] &= ~bit;
+        colors[color] &= ~bit;
+        occupied &= ~bit;
+        counts[piece.ordinal()]--;
+        material[color] -= piece.getValue();
+        midgame[color] -= table.midgame(piece, square);
+        endgame[color] -= table.endgame(piece, square);
+        hash ^= Zobrist.piece(piece, square);
+        if (piece.getType() == PieceType.PAWN) pawnHash ^= Zobrist.piece(piece, square);
+        if (kingSquare[color] == square) kingSquare[color] = -1;
+        return piece;
+    }
+
+    private void add(int square, Piece piece) {
+        int color = piece.isWhite() ? WHITE : BLACK;
+        listIndex[square] = pieceCount[color];
+        pieceList[color][pieceCount[color]++] = square;
+        place(square, piece);
+    }
+
+    private Piece capture(int square) {
+        Piece piece = clear(square);
+        int color = piece.isWhite() ? WHITE : BLACK;
+        int last = pieceList[color][--pieceCount[color]];
+        pieceList[color][listIndex[square]] = last;
+        listIndex[last] = listIndex[square];
+        return piece;
+    }
+
+    private void restore(int square, Piece piece, int index) {
+        int color = piece.isWhite() ? WHITE : BLACK;
+        int displaced = pieceList[color][index];
+        pieceList[color][pieceCount[color]] = displaced;
+        listIndex[displaced] = pieceCount[color]++;
+        pieceList[color][index] = square;
+        listIndex[square] = index;
+        place(square, piece);
+    }
+
+    private void shift(int from, int to) {
+        Piece piece = clear(from);
+        int index = listIndex[from];
+        pieceList[piece.isWhite() ? WHITE : BLACK][index] = to;
+        listIndex[to] = index;
+        place(to, piece);
+    }
+
+    private void promote(int square, Piece piece) {
+        clear(square);
+        place(square, piece);
+    }
+
+    private void push(int state, long previousMoved, long previousHash) {
+        if (ply == undoState.length) {
+            int size = ply * 2;
+            undoHash = Arrays.copyOf(undoHash, size);
+            undoMoved = Arrays.copyOf(undoMoved, size);
+            undoState = Arrays.copyOf(undoState, size);
+            undoLastMove = Arrays.copyOf(undoLastMove, size);
+            undoHalfmove = Arrays.copyOf(undoHalfmove, size);
+        }
+        undoHash[ply] = previousHash;
+        undoMoved[ply] = previousMoved;
+        undoState[ply] = state;
+        undoLastMove[ply] = lastMove;
+        undoHalfmove[ply] = halfmoveClock;
+        ply++;
+    }
+
+    private void castle(int rookFrom, int rookTo) {
+        if (squares[rookFrom] == null) return;
+        shift(rookFrom, rookTo);
+        moved |= bit(rookFrom) | bit(rookTo);
+    }
+
+}
@@ -0,0 +1,186 @@
+package io.arsh.game;
+
+import io.arsh.game.models.Move;
+import io.arsh.game.models.Piece;
+import io.arsh.game.models.PieceType;
+
+import static io.arsh.game.Bitboards.*;
+
+public final class Fen {
+
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen() {
+    }
+
+    public static Board parse(String fen) {
+        Board board = new Board();
+        load(board, fen);
+        return board;
+    }
+
+    public static void load(Board board, String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 2) throw new IllegalArgumentException("Invalid FEN: " + fen);
+
+        Piece[] layout = new Piece[64];
+        int[] pieces = new int[2];
+        int[] kings = {-1, -1};
+        String[] ranks = fields[0].split("/");
+        if (ranks.length != 8) throw new IllegalArgumentException("Invalid FEN placement: " + fields[0]);
+        for (int row = 0; row < 8; row++) {
+            int col = 0;
+            for (char c : ranks[row].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    col += c - '0';
+                } else {
+                    if (col > 7) throw new IllegalArgumentException("Invalid FEN rank: " + ranks[row]);
+                    Piece piece = piece(c);
+                    if (piece.getType() == PieceType.PAWN && (row == 0 || row == 7)) {
+                        throw new IllegalArgumentException("Invalid FEN: pawn on the first or last rank: " + fen);
+                    }
+                    if (++pieces[piece.isWhite() ? 1 : 0] > 16) {
+                        throw new IllegalArgumentException("Invalid FEN: more than 16 pieces for one side: " + fen);
+                    }
+                    if (piece.getType() == PieceType.KING) {
+                        int side = piece.isWhite() ? 1 : 0;
+                        if (kings[side] != -1) {
+                            throw new IllegalArgumentException("Invalid FEN: more than one king for one side: " + fen);
+                        }
+                        kings[side] = square(row, col);
+                    }
+                    layout[square(row, col++)] = piece;
+                }
+            }
+            if (col != 8) throw new IllegalArgumentException("Invalid FEN rank: " + ranks[row]);
+        }
+
+        if (kings[0] == -1 || kings[1] == -1) throw new IllegalArgumentException("Invalid FEN: each side needs a king: " + fen);
+        if (!fields[1].equals("w") && !fields[1].equals("b")) throw new IllegalArgumentException("Invalid FEN side to move: " + fields[1]);
+        boolean whiteToMove = fields[1].equals("w");
+        if (isAttacked(layout, kings[whiteToMove ? 0 : 1], whiteToMove)) {
+            throw new IllegalArgumentException("Invalid FEN: the side not to move is in check: " + fen);
+        }
+        String castling = fields.length > 2 ? fields[2] : "-";
+        String enPassant = fields.length > 3 ? fields[3] : "-";
+
+        long unmoved = 0L;
+        if (castling.indexOf('K') >= 0) unmoved |= bit(7, 4) | bit(7, 7);
+        if (castling.indexOf('Q') >= 0) unmoved |= bit(7, 4) | bit(7, 0);
+        if (castling.indexOf('k') >= 0) unmoved |= bit(0, 4) | bit(0, 7);
+        if (castling.indexOf('q') >= 0) unmoved |= bit(0, 4) | bit(0, 0);
+
+        int lastMove = Move.NONE;
+        if (!enPassant.equals("-")) {
+            int target = parseSquare(enPassant);
+            int dir = whiteToMove ? 8 : -8;
+            lastMove = Move.encode(target - dir, target + dir, Move.DOUBLE_PUSH);
+        }
+
+        int halfmoveClock, fullmoveNumber;
+        try {
+            halfmoveClock = fields.length > 4 ? Integer.parseInt(fields[4]) : 0;
+            fullmoveNumber = fields.length > 5 ? Integer.parseInt(fields[5]) : 1;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid FEN move clocks: " + fen, ex);
+        }
+        if (halfmoveClock < 0 || fullmoveNumber < 1) throw new IllegalArgumentException("Invalid FEN move clocks: " + fen);
+
+        board.setup(layout, whiteToMove, ~unmoved, lastMove, halfmoveClock, fullmoveNumber);
+    }
+
+    private static boolean isAttacked(Piece[] layout, int target, boolean byWhite) {
+        long occupied = 0L;
+        for (int sq = 0; sq < 64; sq++) if (layout[sq] != null) occupied |= bit(sq);
+        for (int sq = 0; sq < 64; sq++) {
+            Piece piece = layout[sq];
+            if (piece == null || piece.isWhite() != byWhite) continue;
+            long attacks = switch (piece.getType()) {
+                case PAWN -> Attacks.pawn(sq, byWhite);
+                case KNIGHT -> Attacks.knight(sq);
+                case BISHOP -> Attacks.bishop(sq, occupied);
+                case ROOK -> Attacks.rook(sq, occupied);
+                case QUEEN -> Attacks.queen(sq, occupied);
+                case KING -> Attacks.king(sq);
+            };
+            if ((attacks & bit(target)) != 0) return true;
+        }
+        return false;
+    }
+
+    public static String toFen(Board board) {
+        StringBuilder fen = new StringBuilder();
+        for (int row = 0; row < 8; row++) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                Piece piece = board.getPiece(row, col);
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) fen.append(empty);
+                empty = 0;
+                fen.append(symbol(piece));
+            }
+            if (empty > 0) fen.append(empty);
+            if (row < 7) fen.append('/');
+        }
+
+        fen.append(board.isWhiteToMove() ? " w " : " b ");
+        int length = fen.length();
+        if (canCastle(board, 7, 7, true)) fen.append('K');
+        if (canCastle(board, 7, 0, true)) fen.append('Q');
+        if (canCastle(board, 0, 7, false)) fen.append('k');
+        if (canCastle(board, 0, 0, false)) fen.append('q');
+        if (fen.length() == length) fen.append('-');
+
+        int enPassant = board.getEnPassantSquare();
+        fen.append(' ').append(enPassant == -1 ? "-" : squareName(enPassant));
+        fen.append(' ').append(board.getHalfmoveClock()).append(' ').append(board.getFullmoveNumber());
+        return fen.toString();
+    }
+
+    public static int parseSquare(String name) {
+        if (name.length() != 2) throw new IllegalArgumentException("Invalid square: " + name);
+        int col = name.charAt(0) - 'a';
+        int row = '8' - name.charAt(1);
+        if (col < 0 || col > 7 || row < 0 || row > 7) throw new IllegalArgumentException("Invalid square: " + name);
+        return square(row, col);
+    }
+
+    public static String squareName(int square) {
+        return "" + (char) ('a' + col(square)) + (char) ('8' - row(square));
+    }
+
+    private static boolean canCastle(Board board, int row, int rookCol, boolean white) {
+        return board.getPiece(row, 4) == Piece.of(PieceType.KING, white)
+                && board.getPiece(row, rookCol) == Piece.of(PieceType.ROOK, white)
+                && !board.hasMoved(row, 4) && !board.hasMoved(row, rookCol);
+    }
+
+    static char symbol(Piece piece) {
+        char c = switch (piece.getType()) {
+            case PAWN -> 'p';
+            case KNIGHT -> 'n';
+            case BISHOP -> 'b';
+            case ROOK -> 'r';
+            case QUEEN -> 'q';
+            case KING -> 'k';
+        };
+        return piece.isWhite() ? Character.toUpperCase(c) : c;
+    }
+
+    private static Piece piece(char c) {
+        PieceType type = switch (Character.toLowerCase(c)) {
+            case 'p' -> PieceType.PAWN;
+            case 'n' -> PieceType.KNIGHT;
+            case 'b' -> PieceType.BISHOP;
+            case 'r' -> PieceType.ROOK;
+            case 'q' -> PieceType.QUEEN;
+            case 'k' -> PieceType.KING;
+            default -> throw new IllegalArgumentException("Invalid FEN piece: " + c);
+        };
+        return Piece.of(type, Character.isUpperCase(c));
+    }
+
+}
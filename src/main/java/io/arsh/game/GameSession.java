@@ -0,0 +1,132 @@
+package io.arsh.game;
+
+import io.arsh.game.models.Move;
+import io.arsh.game.models.MoveList;
+import io.arsh.tablebase.Tablebase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.arsh.game.Bitboards.*;
+
+public class GameSession {
+
+    private static final int MOVE_CACHE_SIZE = 256;
+
+    private final Board board;
+    private final MoveCache moveCache = new MoveCache(MOVE_CACHE_SIZE);
+    private final MoveList legalMoves = new MoveList();
+    private boolean inCheck;
+    private boolean claimDraws = true;
+    private Tablebase tablebase;
+    private Result result;
+
+    public GameSession() {
+        this(new Board());
+    }
+
+    public GameSession(Board board) {
+        this.board = board;
+        update();
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public boolean isWhiteToMove() {
+        return board.isWhiteToMove();
+    }
+
+    public boolean isOver() {
+        return result != null;
+    }
+
+    public Result getResult() {
+        return result;
+    }
+
+    public boolean isInCheck() {
+        return inCheck;
+    }
+
+    // Threefold repetition and the fifty-move rule end the game as if a player claimed the draw.
+    // Without claims only the seventy-five-move rule, fivefold repetition and dead positions do.
+    public void setClaimDraws(boolean claimDraws) {
+        this.claimDraws = claimDraws;
+    }
+
+    // Positions covered by the tablebase end the game with its result instead of being played out.
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+        update();
+    }
+
+    public MoveCache getMoveCache() {
+        return moveCache;
+    }
+
+    public MoveList getLegalMoves() {
+        return legalMoves;
+    }
+
+    public List<Move> getLegalMoves(int row, int col) {
+        int from = square(row, col);
+        List<Move> moves = new ArrayList<>();
+        for (int i = 0; i < legalMoves.size(); i++) {
+            int move = legalMoves.get(i);
+            if (Move.from(move) == from) moves.add(new Move(move));
+        }
+        return moves;
+    }
+
+    public int findMove(int fromRow, int fromCol, int toRow, int toCol) {
+        int from = square(fromRow, fromCol), to = square(toRow, toCol);
+        for (int i = 0; i < legalMoves.size(); i++) {
+            int move = legalMoves.get(i);
+            if (Move.from(move) == from && Move.to(move) == to) return move;
+        }
+        return Move.NONE;
+    }
+
+    public boolean play(int fromRow, int fromCol, int toRow, int toCol) {
+        return play(findMove(fromRow, fromCol, toRow, toCol));
+    }
+
+    public boolean play(int move) {
+        if (isOver() || move == Move.NONE) return false;
+        board.makeMove(move);
+        update();
+        return true;
+    }
+
+    public void adjudicate(Result result) {
+        this.result = result;
+    }
+
+    public void reset() {
+        board.reset();
+        update();
+    }
+
+    private void update() {
+        boolean white = board.isWhiteToMove();
+        inCheck = moveCache.lookup(board, legalMoves);
+
+        if (legalMoves.isEmpty()) {
+            result = !inCheck ? Result.DRAW : white ? Result.BLACK_WINS : Result.WHITE_WINS;
+        } else if (isDrawn()) {
+            result = Result.DRAW;
+        } else {
+            result = tablebase == null ? null : tablebase.probeResult(board);
+        }
+    }
+
+    private boolean isDrawn() {
+        if (board.isInsufficientMaterial() || board.isSeventyFiveMoveRule()) return true;
+        if (claimDraws && board.isFiftyMoveRule()) return true;
+        int repetitions = board.getRepetitionCount();
+        return repetitions >= 5 || claimDraws && repetitions >= 3;
+    }
+
+}
@@ -4,5 +4,14 @@ public enum Mode {
     HUMAN_VS_HUMAN,
     AI_VS_HUMAN,
     HUMAN_VS_AI,
-    AI_VS_AI
+    AI_VS_AI;
+
+    public boolean isAi(boolean white) {
+        return switch (this) {
+            case HUMAN_VS_HUMAN -> false;
+            case AI_VS_HUMAN -> white;
+            case HUMAN_VS_AI -> !white;
+            case AI_VS_AI -> true;
+        };
+    }
 }
@@ -0,0 +1,67 @@
+package io.arsh.game;
+
+import io.arsh.game.models.MoveList;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class MoveCache {
+
+    private final Map<Long, Entry> entries;
+    private long hits;
+    private long misses;
+
+    public MoveCache(int capacity) {
+        this.entries = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    // Fills moves with the legal moves of the side to move and returns whether it is in check.
+    public boolean lookup(Board board, MoveList moves) {
+        moves.clear();
+        Entry entry = entries.get(board.getHash());
+        if (entry != null) {
+            hits++;
+            moves.addAll(entry.moves);
+            return entry.inCheck;
+        }
+
+        misses++;
+        boolean white = board.isWhiteToMove();
+        Rules.generateLegalMoves(board, white, moves);
+        boolean inCheck = Rules.isInCheck(board, white);
+        entries.put(board.getHash(), new Entry(moves.toArray(), inCheck));
+        return inCheck;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    private static final class Entry {
+        final int[] moves;
+        final boolean inCheck;
+
+        Entry(int[] moves, boolean inCheck) {
+            this.moves = moves;
+            this.inCheck = inCheck;
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+package io.arsh.game;
+
+import io.arsh.game.models.Piece;
+import io.arsh.game.models.PieceType;
+
+public class PieceSquareTable {
+
+    public static final PieceSquareTable NONE = new PieceSquareTable(
+            new int[PieceType.values().length][64], new int[PieceType.values().length][64]
+    );
+
+    private final int[][] midgame = new int[Piece.values().length][64];
+    private final int[][] endgame = new int[Piece.values().length][64];
+
+    // Tables are indexed by PieceType and laid out from white's side, a8 first; values include material.
+    public PieceSquareTable(int[][] midgame, int[][] endgame) {
+        for (Piece piece : Piece.values()) {
+            int type = piece.getType().ordinal();
+            for (int sq = 0; sq < 64; sq++) {
+                int from = piece.isWhite() ? sq : sq ^ 56;
+                this.midgame[piece.ordinal()][sq] = midgame[type][from];
+                this.endgame[piece.ordinal()][sq] = endgame[type][from];
+            }
+        }
+    }
+
+    public int midgame(Piece piece, int square) {
+        return midgame[piece.ordinal()][square];
+    }
+
+    public int endgame(Piece piece, int square) {
+        return endgame[piece.ordinal()][square];
+    }
+
+}
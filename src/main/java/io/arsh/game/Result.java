@@ -0,0 +1,7 @@
+package io.arsh.game;
+
+public enum Result {
+    WHITE_WINS,
+    BLACK_WINS,
+    DRAW
+}
@@ -1,199 +1,191 @@
 package io.arsh.game;
 
 import io.arsh.game.models.Move;
+import io.arsh.game.models.MoveList;
 import io.arsh.game.models.Piece;
+import io.arsh.game.models.PieceType;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import static io.arsh.game.Bitboards.*;
+
 public class Rules {
 
     public static List<Move> getAllLegalMoves(Board board, boolean white) {
-        List<Move> allMoves = new ArrayList<>();
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Piece piece = board.getPiece(r, c);
-                if (piece != null && piece.isWhite() == white) {
-                    allMoves.addAll(getLegalMoves(board, r, c));
-                }
-            }
-        }
-        return allMoves;
+        MoveList buffer = new MoveList();
+        generateLegalMoves(board, white, buffer);
+        return toMoves(buffer);
     }
 
     public static List<Move> getLegalMoves(Board board, int row, int col) {
-        List<Move> pseudoMoves = getValidMoves(board, row, col);
-        List<Move> legalMoves = new ArrayList<>();
+        MoveList buffer = new MoveList();
+        generateLegalMoves(board, square(row, col), buffer);
+        return toMoves(buffer);
+    }
+
+    public static List<Move> getValidMoves(Board board, int row, int col) {
+        MoveList buffer = new MoveList();
+        generateMoves(board, square(row, col), buffer);
+        return toMoves(buffer);
+    }
+
+    public static void generateLegalMoves(Board board, boolean white, MoveList moves) {
+        for (int i = 0; i < board.getPieceCount(white); i++) {
+            generateLegalMoves(board, board.getPieceSquare(white, i), moves);
+        }
+    }
 
-        Piece piece = board.getPiece(row, col);
-        if (piece == null) return legalMoves;
+    public static void generateLegalMoves(Board board, int square, MoveList moves) {
+        Piece piece = board.getPiece(square);
+        if (piece == null) return;
 
         boolean white = piece.isWhite();
+        int start = moves.size();
+        generateMoves(board, square, moves);
 
-        for (Move move : pseudoMoves) {
-            Board copy = new Board(board);
-            copy.movePiece(row, col, move.toRow, move.toCol);
-            if (!isInCheck(copy, white)) {
-                legalMoves.add(move);
-            }
+        int kept = start;
+        for (int i = start; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (isLegal(board, move, white)) moves.set(kept++, move);
         }
+        moves.truncate(kept);
 
-        if (piece.name().contains("KING") && !board.hasMoved(row, col) && !isInCheck(board, white)) {
-            if (!board.hasMoved(row, 7) && isEmpty(board, row, 5) && isEmpty(board, row, 6)) {
-                if (!isSquareAttacked(board, row, 5, !white) && !isSquareAttacked(board, row, 6, !white)) {
-                    legalMoves.add(new Move(row, col, row, 6));
-                }
-            }
-            if (!board.hasMoved(row, 0) && isEmpty(board, row, 1) && isEmpty(board, row, 2) && isEmpty(board, row, 3)) {
-                if (!isSquareAttacked(board, row, 2, !white) && !isSquareAttacked(board, row, 3, !white)) {
-                    legalMoves.add(new Move(row, col, row, 2));
-                }
-            }
+        if (piece.getType() == PieceType.KING) {
+            addCastling(board, square, white, moves);
         }
-
-        return legalMoves;
     }
 
-    public static boolean isInCheck(Board board, boolean whiteKing) {
-        int kingRow = -1, kingCol = -1;
-
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Piece p = board.getPiece(r, c);
-                if (p == (whiteKing ? Piece.WHITE_KING : Piece.BLACK_KING)) {
-                    kingRow = r;
-                    kingCol = c;
-                }
-            }
+    public static void generateCaptures(Board board, boolean white, MoveList moves) {
+        long targets = board.getPieces(!white);
+        for (int i = 0; i < board.getPieceCount(white); i++) {
+            generateMoves(board, board.getPieceSquare(white, i), targets, true, false, moves);
         }
-        if (kingRow == -1) return false;
-
-        return isSquareAttacked(board, kingRow, kingCol, !whiteKing);
     }
 
-    private static boolean isSquareAttacked(Board board, int row, int col, boolean byWhite) {
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Piece attacker = board.getPiece(r, c);
-                if (attacker != null && attacker.isWhite() == byWhite) {
-                    for (Move move : getValidMoves(board, r, c)) {
-                        if (move.toRow == row && move.toCol == col) return true;
-                    }
-                }
-            }
+    public static void generateQuiets(Board board, boolean white, MoveList moves) {
+        long targets = ~board.getOccupied();
+        for (int i = 0; i < board.getPieceCount(white); i++) {
+            int square = board.getPieceSquare(white, i);
+            generateMoves(board, square, targets, false, true, moves);
+            if (board.getPiece(square).getType() == PieceType.KING) addCastling(board, square, white, moves);
         }
-        return false;
     }
 
-    public static List<Move> getValidMoves(Board board, int row, int col) {
-        List<Move> moves = new ArrayList<>();
-        Piece piece = board.getPiece(row, col);
-        if (piece == null) return moves;
-
-        String name = piece.name();
-
-        if (name.contains("PAWN")) {
-            addPawnMoves(board, row, col, moves, piece.isWhite());
-        } else if (name.contains("ROOK")) {
-            addSlidingMoves(board, row, col, moves, new int[][]{{-1, 0}, {1, 0}, {0, -1}, {0, 1}});
-        } else if (name.contains("BISHOP")) {
-            addSlidingMoves(board, row, col, moves, new int[][]{{-1, -1}, {-1, 1}, {1, -1}, {1, 1}});
-        } else if (name.contains("QUEEN")) {
-            addSlidingMoves(board, row, col, moves, new int[][]{
-                    {-1, 0}, {1, 0}, {0, -1}, {0, 1}, {-1, -1}, {-1, 1}, {1, -1}, {1, 1}});
-        } else if (name.contains("KNIGHT")) {
-            addKnightMoves(board, row, col, moves);
-        } else if (name.contains("KING")) {
-            addKingMoves(board, row, col, moves);
-        }
-        return moves;
+    public static boolean isLegal(Board board, int move, boolean white) {
+        board.makeMove(move);
+        boolean legal = !isInCheck(board, white);
+        board.unmakeMove();
+        return legal;
     }
 
-    private static void addPawnMoves(Board board, int row, int col, List<Move> moves, boolean white) {
-        int dir = white ? -1 : 1;
-        int startRow = white ? 6 : 1;
+    public static void generateMoves(Board board, int square, MoveList moves) {
+        Piece piece = board.getPiece(square);
+        if (piece == null) return;
 
-        if (isEmpty(board, row + dir, col)) {
-            moves.add(new Move(row, col, row + dir, col));
-            if (row == startRow && isEmpty(board, row + 2 * dir, col)) {
-                moves.add(new Move(row, col, row + 2 * dir, col));
-            }
-        }
-        addCapture(board, moves, row, col, row + dir, col - 1, white);
-        addCapture(board, moves, row, col, row + dir, col + 1, white);
-
-        Move last = board.getLastMove();
-        if (last != null) {
-            Piece movedPawn = board.getPiece(last.toRow, last.toCol);
-            if (movedPawn != null && movedPawn.name().contains("PAWN") &&
-                    Math.abs(last.toRow - last.fromRow) == 2 && last.toRow == row) {
-                if (Math.abs(last.toCol - col) == 1) {
-                    moves.add(new Move(row, col, row + dir, last.toCol));
-                }
-            }
+        generateMoves(board, square, ~board.getPieces(piece.isWhite()), true, true, moves);
+    }
+
+    private static void generateMoves(Board board, int square, long targets, boolean captures, boolean quiets, MoveList moves) {
+        Piece piece = board.getPiece(square);
+        boolean white = piece.isWhite();
+        long occupied = board.getOccupied();
+
+        switch (piece.getType()) {
+            case PAWN -> addPawnMoves(board, square, white, captures, quiets, moves);
+            case KNIGHT -> addMoves(board, square, Attacks.knight(square) & targets, moves);
+            case BISHOP -> addMoves(board, square, Attacks.bishop(square, occupied) & targets, moves);
+            case ROOK -> addMoves(board, square, Attacks.rook(square, occupied) & targets, moves);
+            case QUEEN -> addMoves(board, square, Attacks.queen(square, occupied) & targets, moves);
+            case KING -> addMoves(board, square, Attacks.king(square) & targets, moves);
         }
     }
 
-    private static void addKnightMoves(Board board, int row, int col, List<Move> moves) {
-        int[][] deltas = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
-        Piece knight = board.getPiece(row, col);
-        boolean white = knight.isWhite();
+    public static boolean isInCheck(Board board, boolean whiteKing) {
+        int king = board.getKingSquare(whiteKing);
+        if (king == -1) return false;
 
-        for (int[] d : deltas) {
-            int r = row + d[0], c = col + d[1];
-            if (inBounds(r, c)) {
-                Piece t = board.getPiece(r, c);
-                if (t == null || t.isWhite() != white) moves.add(new Move(row, col, r, c));
-            }
-        }
+        return isSquareAttacked(board, king, !whiteKing);
     }
 
-    private static void addKingMoves(Board board, int row, int col, List<Move> moves) {
-        int[][] deltas = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
-        Piece king = board.getPiece(row, col);
-        boolean white = king.isWhite();
+    public static boolean isSquareAttacked(Board board, int square, boolean byWhite) {
+        long occupied = board.getOccupied();
+        Piece pawn = Piece.of(PieceType.PAWN, byWhite);
+        Piece knight = Piece.of(PieceType.KNIGHT, byWhite);
+        Piece bishop = Piece.of(PieceType.BISHOP, byWhite);
+        Piece rook = Piece.of(PieceType.ROOK, byWhite);
+        Piece queen = Piece.of(PieceType.QUEEN, byWhite);
+        Piece king = Piece.of(PieceType.KING, byWhite);
+
+        return (Attacks.pawn(square, !byWhite) & board.getPieces(pawn)) != 0
+                || (Attacks.knight(square) & board.getPieces(knight)) != 0
+                || (Attacks.king(square) & board.getPieces(king)) != 0
+                || (Attacks.bishop(square, occupied) & (board.getPieces(bishop) | board.getPieces(queen))) != 0
+                || (Attacks.rook(square, occupied) & (board.getPieces(rook) | board.getPieces(queen))) != 0;
+    }
 
-        for (int[] d : deltas) {
-            int r = row + d[0], c = col + d[1];
-            if (inBounds(r, c)) {
-                Piece t = board.getPiece(r, c);
-                if (t == null || t.isWhite() != white) moves.add(new Move(row, col, r, c));
+    // Promotions count as captures so that staged generation searches them early.
+    private static void addPawnMoves(Board board, int square, boolean white, boolean captures, boolean quiets, MoveList moves) {
+        int dir = white ? -8 : 8;
+        int startRow = white ? 6 : 1;
+        int lastRow = white ? 0 : 7;
+        long empty = ~board.getOccupied();
+
+        int one = square + dir;
+        if ((empty & bit(one)) != 0) {
+            boolean promotion = row(one) == lastRow;
+            if (promotion ? captures : quiets) {
+                moves.add(Move.encode(square, one, promotion ? Move.PROMOTION : 0));
+            }
+            int two = one + dir;
+            if (quiets && row(square) == startRow && (empty & bit(two)) != 0) {
+                moves.add(Move.encode(square, two, Move.DOUBLE_PUSH));
             }
         }
-    }
+        if (!captures) return;
 
-    private static void addSlidingMoves(Board board, int row, int col, List<Move> moves, int[][] dirs) {
-        Piece piece = board.getPiece(row, col);
-        boolean white = piece.isWhite();
+        long attacks = Attacks.pawn(square, white);
+        for (long targets = attacks & board.getPieces(!white); targets != 0; targets &= targets - 1) {
+            int to = first(targets);
+            moves.add(Move.encode(square, to, row(to) == lastRow ? Move.CAPTURE | Move.PROMOTION : Move.CAPTURE));
+        }
 
-        for (int[] dir : dirs) {
-            int r = row + dir[0], c = col + dir[1];
-            while (inBounds(r, c)) {
-                Piece t = board.getPiece(r, c);
-                if (t == null) {
-                    moves.add(new Move(row, col, r, c));
-                } else {
-                    if (t.isWhite() != white) moves.add(new Move(row, col, r, c));
-                    break;
-                }
-                r += dir[0];
-                c += dir[1];
-            }
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant != -1 && (attacks & bit(enPassant)) != 0) {
+            moves.add(Move.encode(square, enPassant, Move.CAPTURE | Move.EN_PASSANT));
         }
     }
 
-    private static void addCapture(Board board, List<Move> moves, int fromRow, int fromCol, int row, int col, boolean white) {
-        if (inBounds(row, col)) {
-            Piece t = board.getPiece(row, col);
-            if (t != null && t.isWhite() != white) moves.add(new Move(fromRow, fromCol, row, col));
+    private static void addMoves(Board board, int square, long targets, MoveList moves) {
+        long occupied = board.getOccupied();
+        for (; targets != 0; targets &= targets - 1) {
+            int to = first(targets);
+            moves.add(Move.encode(square, to, (occupied & bit(to)) != 0 ? Move.CAPTURE : 0));
         }
     }
 
-    private static boolean inBounds(int row, int col) {
-        return row >= 0 && row < 8 && col >= 0 && col < 8;
+    private static void addCastling(Board board, int square, boolean white, MoveList moves) {
+        int row = row(square), col = col(square);
+        if (board.hasMoved(row, col) || isInCheck(board, white)) return;
+
+        long occupied = board.getOccupied();
+        if (!board.hasMoved(row, 7) && (occupied & (bit(row, 5) | bit(row, 6))) == 0) {
+            if (!isSquareAttacked(board, square(row, 5), !white) && !isSquareAttacked(board, square(row, 6), !white)) {
+                moves.add(Move.encode(square, square(row, 6), Move.CASTLE));
+            }
+        }
+        if (!board.hasMoved(row, 0) && (occupied & (bit(row, 1) | bit(row, 2) | bit(row, 3))) == 0) {
+            if (!isSquareAttacked(board, square(row, 2), !white) && !isSquareAttacked(board, square(row, 3), !white)) {
+                moves.add(Move.encode(square, square(row, 2), Move.CASTLE));
+            }
+        }
     }
 
-    private static boolean isEmpty(Board board, int row, int col) {
-        return inBounds(row, col) && board.getPiece(row, col) == null;
+    private static List<Move> toMoves(MoveList buffer) {
+        List<Move> moves = new ArrayList<>(buffer.size());
+        for (int i = 0; i < buffer.size(); i++) {
+            moves.add(new Move(buffer.get(i)));
+        }
+        return moves;
     }
-}
\ No newline at end of file
+}
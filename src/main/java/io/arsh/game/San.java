@@ -0,0 +1,145 @@
+package io.arsh.game;
+
+import io.arsh.game.models.Move;
+import io.arsh.game.models.MoveList;
+import io.arsh.game.models.Piece;
+import io.arsh.game.models.PieceType;
+
+import static io.arsh.game.Bitboards.*;
+
+public final class San {
+
+    private San() {
+    }
+
+    public static int parse(Board board, String san) {
+        MoveList moves = new MoveList();
+        Rules.generateLegalMoves(board, board.isWhiteToMove(), moves);
+        return parse(board, san, moves);
+    }
+
+    public static int parse(Board board, String san, MoveList legalMoves) {
+        String text = strip(san);
+        if (text.isEmpty()) throw new IllegalArgumentException("Empty move");
+
+        if (text.equals("O-O") || text.equals("0-0") || text.equals("O-O-O") || text.equals("0-0-0")) {
+            int toCol = text.length() == 3 ? 6 : 2;
+            for (int i = 0; i < legalMoves.size(); i++) {
+                int move = legalMoves.get(i);
+                if (Move.is(move, Move.CASTLE) && col(Move.to(move)) == toCol) return move;
+            }
+            throw new IllegalArgumentException("Illegal castling: " + san);
+        }
+
+        int end = text.length();
+        int promotion = text.indexOf('=');
+        if (promotion >= 0) {
+            if (promotion + 2 != text.length()) throw new IllegalArgumentException("Invalid promotion: " + san);
+            end = promotion;
+            promotion = text.charAt(promotion + 1);
+        } else if ("NBRQ".indexOf(text.charAt(end - 1)) >= 0 && end > 2 && Character.isDigit(text.charAt(end - 2))) {
+            promotion = text.charAt(--end);
+        }
+        if (promotion > 0 && promotion != 'Q') {
+            throw new IllegalArgumentException("Unsupported underpromotion: " + san);
+        }
+        if (end < 2) throw new IllegalArgumentException("Invalid move: " + san);
+
+        int to = Fen.parseSquare(text.substring(end - 2, end));
+        int start = 0;
+        PieceType type = PieceType.PAWN;
+        if ("NBRQK".indexOf(text.charAt(0)) >= 0) {
+            type = type(text.charAt(0));
+            start = 1;
+        }
+
+        int fromCol = -1, fromRow = -1;
+        for (int i = start; i < end - 2; i++) {
+            char c = text.charAt(i);
+            if (c >= 'a' && c <= 'h') fromCol = c - 'a';
+            else if (c >= '1' && c <= '8') fromRow = '8' - c;
+            else if (c != 'x' && c != '-') throw new IllegalArgumentException("Invalid move: " + san);
+        }
+
+        int found = Move.NONE;
+        for (int i = 0; i < legalMoves.size(); i++) {
+            int move = legalMoves.get(i);
+            int from = Move.from(move);
+            if (Move.to(move) != to || board.getPiece(from).getType() != type) continue;
+            if (fromCol != -1 && col(from) != fromCol || fromRow != -1 && row(from) != fromRow) continue;
+            if (found != Move.NONE) throw new IllegalArgumentException("Ambiguous move: " + san);
+            found = move;
+        }
+        if (found == Move.NONE) throw new IllegalArgumentException("Illegal move: " + san);
+        return found;
+    }
+
+    public static String toSan(Board board, int move) {
+        MoveList moves = new MoveList();
+        Rules.generateLegalMoves(board, board.isWhiteToMove(), moves);
+        return toSan(board, move, moves);
+    }
+
+    public static String toSan(Board board, int move, MoveList legalMoves) {
+        int from = Move.from(move), to = Move.to(move);
+        Piece piece = board.getPiece(from);
+        StringBuilder san = new StringBuilder();
+
+        if (Move.is(move, Move.CASTLE)) {
+            san.append(col(to) == 6 ? "O-O" : "O-O-O");
+        } else if (piece.getType() == PieceType.PAWN) {
+            if (Move.is(move, Move.CAPTURE)) san.append((char) ('a' + col(from))).append('x');
+            san.append(Fen.squareName(to));
+            if (Move.is(move, Move.PROMOTION)) san.append("=Q");
+        } else {
+            san.append(Character.toUpperCase(Fen.symbol(piece)));
+            boolean ambiguous = false, sameCol = false, sameRow = false;
+            for (int i = 0; i < legalMoves.size(); i++) {
+                int other = legalMoves.get(i);
+                int otherFrom = Move.from(other);
+                if (otherFrom == from || Move.to(other) != to || board.getPiece(otherFrom) != piece) continue;
+                ambiguous = true;
+                sameCol |= col(otherFrom) == col(from);
+                sameRow |= row(otherFrom) == row(from);
+            }
+            if (ambiguous) {
+                if (!sameCol) {
+                    san.append((char) ('a' + col(from)));
+                } else if (!sameRow) {
+                    san.append((char) ('8' - row(from)));
+                } else {
+                    san.append(Fen.squareName(from));
+                }
+            }
+            if (Move.is(move, Move.CAPTURE)) san.append('x');
+            san.append(Fen.squareName(to));
+        }
+
+        board.makeMove(move);
+        boolean white = board.isWhiteToMove();
+        if (Rules.isInCheck(board, white)) {
+            MoveList replies = new MoveList();
+            Rules.generateLegalMoves(board, white, replies);
+            san.append(replies.isEmpty() ? '#' : '+');
+        }
+        board.unmakeMove();
+        return san.toString();
+    }
+
+    private static String strip(String san) {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) end--;
+        return san.substring(0, end).trim();
+    }
+
+    private static PieceType type(char c) {
+        return switch (c) {
+            case 'N' -> PieceType.KNIGHT;
+            case 'B' -> PieceType.BISHOP;
+            case 'R' -> PieceType.ROOK;
+            case 'Q' -> PieceType.QUEEN;
+            default -> PieceType.KING;
+        };
+    }
+
+}
@@ -0,0 +1,59 @@
+package io.arsh.game;
+
+import io.arsh.game.models.Piece;
+
+import java.util.SplittableRandom;
+
+import static io.arsh.game.Bitboards.*;
+
+public final class Zobrist {
+
+    private static final long[][] PIECES = new long[Piece.values().length][64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    private static final long WHITE_KINGSIDE = bit(7, 4) | bit(7, 7);
+    private static final long WHITE_QUEENSIDE = bit(7, 4) | bit(7, 0);
+    private static final long BLACK_KINGSIDE = bit(0, 4) | bit(0, 7);
+    private static final long BLACK_QUEENSIDE = bit(0, 4) | bit(0, 0);
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x2B7E151628AED2A6L);
+        for (long[] keys : PIECES) {
+            for (int sq = 0; sq < 64; sq++) keys[sq] = random.nextLong();
+        }
+        for (int i = 1; i < CASTLING.length; i++) CASTLING[i] = random.nextLong();
+        for (int i = 0; i < EN_PASSANT.length; i++) EN_PASSANT[i] = random.nextLong();
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    public static long piece(Piece piece, int square) {
+        return PIECES[piece.ordinal()][square];
+    }
+
+    public static long side(boolean whiteToMove) {
+        return whiteToMove ? 0L : BLACK_TO_MOVE;
+    }
+
+    public static long castling(long moved) {
+        return CASTLING[castlingRights(moved)];
+    }
+
+    public static long enPassant(int square) {
+        return square == -1 ? 0L : EN_PASSANT[col(square)];
+    }
+
+    public static int castlingRights(long moved) {
+        int rights = 0;
+        if ((moved & WHITE_KINGSIDE) == 0) rights |= 1;
+        if ((moved & WHITE_QUEENSIDE) == 0) rights |= 2;
+        if ((moved & BLACK_KINGSIDE) == 0) rights |= 4;
+        if ((moved & BLACK_QUEENSIDE) == 0) rights |= 8;
+        return rights;
+    }
+
+}
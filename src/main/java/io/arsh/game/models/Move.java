@@ -2,6 +2,14 @@ package io.arsh.game.models;
 
 public class Move {
 
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1;
+    public static final int DOUBLE_PUSH = 1 << 1;
+    public static final int EN_PASSANT = 1 << 2;
+    public static final int CASTLE = 1 << 3;
+    public static final int PROMOTION = 1 << 4;
+
     public final int fromRow, fromCol, toRow, toCol;
 
     public Move(int fromRow, int fromCol, int toRow, int toCol) {
@@ -18,6 +26,10 @@ public class Move {
         this.toCol = other.toCol;
     }
 
+    public Move(int code) {
+        this(from(code) >>> 3, from(code) & 7, to(code) >>> 3, to(code) & 7);
+    }
+
     public int getFromRow() {
         return fromRow;
     }
@@ -34,4 +46,28 @@ public class Move {
         return toCol;
     }
 
-}
\ No newline at end of file
+    public int encode() {
+        return encode(fromRow * 8 + fromCol, toRow * 8 + toCol, 0);
+    }
+
+    public static int encode(int from, int to, int flags) {
+        return from | to << 6 | flags << 12;
+    }
+
+    public static int from(int code) {
+        return code & 63;
+    }
+
+    public static int to(int code) {
+        return code >>> 6 & 63;
+    }
+
+    public static int flags(int code) {
+        return code >>> 12;
+    }
+
+    public static boolean is(int code, int flag) {
+        return (code >>> 12 & flag) != 0;
+    }
+
+}
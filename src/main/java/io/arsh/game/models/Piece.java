@@ -1,38 +1,57 @@
 package io.arsh.game.models;
 
-import io.arsh.ui.Texture;
-
 public enum Piece {
 
-    BLACK_PAWN(Texture.BLACK_PAWN),
-    BLACK_ROOK(Texture.BLACK_ROOK),
-    BLACK_KNIGHT(Texture.BLACK_KNIGHT),
-    BLACK_BISHOP(Texture.BLACK_BISHOP),
-    BLACK_QUEEN(Texture.BLACK_QUEEN),
-    BLACK_KING(Texture.BLACK_KING),
+    BLACK_PAWN(false, PieceType.PAWN),
+    BLACK_ROOK(false, PieceType.ROOK),
+    BLACK_KNIGHT(false, PieceType.KNIGHT),
+    BLACK_BISHOP(false, PieceType.BISHOP),
+    BLACK_QUEEN(false, PieceType.QUEEN),
+    BLACK_KING(false, PieceType.KING),
+
+    WHITE_PAWN(true, PieceType.PAWN),
+    WHITE_ROOK(true, PieceType.ROOK),
+    WHITE_KNIGHT(true, PieceType.KNIGHT),
+    WHITE_BISHOP(true, PieceType.BISHOP),
+    WHITE_QUEEN(true, PieceType.QUEEN),
+    WHITE_KING(true, PieceType.KING);
+
+    private static final Piece[] WHITE_PIECES = new Piece[PieceType.values().length];
+    private static final Piece[] BLACK_PIECES = new Piece[PieceType.values().length];
+
+    static {
+        for (Piece piece : values()) {
+            (piece.white ? WHITE_PIECES : BLACK_PIECES)[piece.type.ordinal()] = piece;
+        }
+    }
 
-    WHITE_PAWN(Texture.WHITE_PAWN),
-    WHITE_ROOK(Texture.WHITE_ROOK),
-    WHITE_KNIGHT(Texture.WHITE_KNIGHT),
-    WHITE_BISHOP(Texture.WHITE_BISHOP),
-    WHITE_QUEEN(Texture.WHITE_QUEEN),
-    WHITE_KING(Texture.WHITE_KING);
+    private final boolean white;
+    private final PieceType type;
+    private final int value;
 
-    private final Texture texture;
+    Piece(boolean white, PieceType type) {
+        this.white = white;
+        this.type = type;
+        this.value = type.getValue();
+    }
+
+    public static Piece of(PieceType type, boolean white) {
+        return (white ? WHITE_PIECES : BLACK_PIECES)[type.ordinal()];
+    }
 
-    Piece(Texture texture) {
-        this.texture = texture;
+    public PieceType getType() {
+        return type;
     }
 
-    public Texture getTexture() {
-        return texture;
+    public int getValue() {
+        return value;
     }
 
     public boolean isWhite() {
-        return this.name().startsWith("WHITE");
+        return white;
     }
 
     public boolean isKing() {
-        return this.name().endsWith("KING");
+        return type == PieceType.KING;
     }
 }
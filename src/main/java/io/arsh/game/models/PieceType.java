@@ -0,0 +1,20 @@
+package io.arsh.game.models;
+
+public enum PieceType {
+    PAWN(100),
+    KNIGHT(320),
+    BISHOP(330),
+    ROOK(500),
+    QUEEN(900),
+    KING(0);
+
+    private final int value;
+
+    PieceType(int value) {
+        this.value = value;
+    }
+
+    public int getValue() {
+        return value;
+    }
+}
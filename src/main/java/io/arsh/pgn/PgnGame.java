@@ -0,0 +1,92 @@
+package io.arsh.pgn;
+
+import io.arsh.game.Board;
+import io.arsh.game.Fen;
+import io.arsh.game.Rules;
+import io.arsh.game.San;
+import io.arsh.game.models.MoveList;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class PgnGame {
+
+    private final Map<String, String> tags;
+    private final int[] moves;
+    private final String result;
+
+    public PgnGame(Map<String, String> tags, int[] moves, String result) {
+        this.tags = Collections.unmodifiableMap(new LinkedHashMap<>(tags));
+        this.moves = moves;
+        this.result = result;
+    }
+
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+
+    public int[] getMoves() {
+        return moves.clone();
+    }
+
+    public int getMoveCount() {
+        return moves.length;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public String getStartFen() {
+        return tags.getOrDefault("FEN", Fen.START);
+    }
+
+    public Board replay() {
+        Board board = Fen.parse(getStartFen());
+        for (int move : moves) board.makeMove(move);
+        return board;
+    }
+
+    public String toPgn() {
+        StringBuilder pgn = new StringBuilder();
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            String value = tag.getValue().replace("\\", "\\\\").replace("\"", "\\\"");
+            pgn.append('[').append(tag.getKey()).append(" \"").append(value).append("\"]\n");
+        }
+        pgn.append('\n');
+
+        Board board = Fen.parse(getStartFen());
+        MoveList legal = new MoveList();
+        int line = 0;
+        for (int i = 0; i < moves.length; i++) {
+            StringBuilder token = new StringBuilder();
+            if (board.isWhiteToMove()) {
+                token.append(board.getFullmoveNumber()).append(". ");
+            } else if (i == 0) {
+                token.append(board.getFullmoveNumber()).append("... ");
+            }
+            legal.clear();
+            Rules.generateLegalMoves(board, board.isWhiteToMove(), legal);
+            token.append(San.toSan(board, moves[i], legal));
+            board.makeMove(moves[i]);
+
+            if (line > 0 && line + token.length() + 1 > 80) {
+                pgn.append('\n');
+                line = 0;
+            } else if (line > 0) {
+                pgn.append(' ');
+                line++;
+            }
+            pgn.append(token);
+            line += token.length();
+        }
+        if (line > 0) pgn.append(' ');
+        return pgn.append(result).append("\n\n").toString();
+    }
+
+}
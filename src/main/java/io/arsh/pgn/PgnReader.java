@@ -0,0 +1,259 @@
+package io.arsh.pgn;
+
+import io.arsh.game.Board;
+import io.arsh.game.Fen;
+import io.arsh.game.Rules;
+import io.arsh.game.San;
+import io.arsh.game.models.MoveList;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+public class PgnReader implements Closeable {
+
+    private static final String END = "";
+
+    private final BufferedReader in;
+    private String pending;
+    private long games;
+
+    public PgnReader(Reader in) {
+        this.in = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in, 1 << 16);
+    }
+
+    public static PgnReader open(Path path) throws IOException {
+        return new PgnReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8));
+    }
+
+    public PgnGame next() throws IOException {
+        String text = nextText();
+        return text == null ? null : parse(text);
+    }
+
+    // Returns the raw text of the next game, reading only as far as its end.
+    public String nextText() throws IOException {
+        StringBuilder game = new StringBuilder();
+        boolean moves = false;
+        int comments = 0;
+
+        String line;
+        while ((line = pending != null ? pending : in.readLine()) != null) {
+            pending = null;
+            String trimmed = line.trim();
+            if (comments == 0) {
+                if (trimmed.startsWith("%")) continue;
+                if (moves && (trimmed.isEmpty() || trimmed.startsWith("["))) {
+                    if (!trimmed.isEmpty()) pending = line;
+                    break;
+                }
+                if (trimmed.isEmpty()) continue;
+                if (!trimmed.startsWith("[")) moves = true;
+            }
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '{') comments++;
+                else if (c == '}' && comments > 0) comments--;
+            }
+            game.append(line).append('\n');
+        }
+
+        if (game.isEmpty()) return null;
+        games++;
+        return game.toString();
+    }
+
+    public long getGamesRead() {
+        return games;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    public static PgnGame parse(String text) {
+        Map<String, String> tags = new LinkedHashMap<>();
+        MoveList moves = new MoveList();
+        MoveList legal = new MoveList();
+        Board board = null;
+        String result = "*";
+
+        int i = 0, n = text.length();
+        while (i < n) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '[') {
+                int end = tagEnd(text, i);
+                parseTag(text.substring(i + 1, end), tags);
+                i = end + 1;
+            } else if (c == '{') {
+                int end = text.indexOf('}', i);
+                i = end < 0 ? n : end + 1;
+            } else if (c == ';') {
+                int end = text.indexOf('\n', i);
+                i = end < 0 ? n : end + 1;
+            } else if (c == '(') {
+                i = skipVariation(text, i);
+            } else if (c == '$') {
+                i++;
+                while (i < n && Character.isDigit(text.charAt(i))) i++;
+            } else {
+                int start = i;
+                while (i < n && !Character.isWhitespace(text.charAt(i)) && "{}();[".indexOf(text.charAt(i)) < 0) i++;
+                String token = text.substring(start, i);
+
+                if (token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*")) {
+                    result = token;
+                    continue;
+                }
+                int dots = token.lastIndexOf('.');
+                if (dots >= 0) {
+                    if (!token.substring(0, dots + 1).matches("\\d*\\.+")) {
+                        throw new IllegalArgumentException("Invalid move number: " + token);
+                    }
+                    token = token.substring(dots + 1);
+                    if (token.isEmpty()) continue;
+                }
+
+                if (board == null) board = Fen.parse(tags.getOrDefault("FEN", Fen.START));
+                legal.clear();
+                Rules.generateLegalMoves(board, board.isWhiteToMove(), legal);
+                try {
+                    int move = San.parse(board, token, legal);
+                    board.makeMove(move);
+                    moves.add(move);
+                } catch (IllegalArgumentException ex) {
+                    throw new IllegalArgumentException(describe(tags) + " at ply " + (moves.size() + 1) + ": " + ex.getMessage(), ex);
+                }
+            }
+        }
+        return new PgnGame(tags, moves.toArray(), tags.getOrDefault("Result", result));
+    }
+
+    // Reads games on this thread and replays them on the given number of workers.
+    // At most a few games per worker are held in memory at once.
+    public static long forEach(Path path, int threads, Consumer<PgnGame> action, Consumer<RuntimeException> errors)
+            throws IOException, InterruptedException {
+        BlockingQueue<String> queue = new ArrayBlockingQueue<>(threads * 16);
+        LongAdder parsed = new LongAdder();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    for (String text = queue.take(); text != END; text = queue.take()) {
+                        try {
+                            action.accept(parse(text));
+                            parsed.increment();
+                        } catch (RuntimeException ex) {
+                            errors.accept(ex);
+                        }
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "pgn-reader-" + t);
+            workers[t].start();
+        }
+
+        boolean completed = false;
+        try (PgnReader reader = open(path)) {
+            for (String text = reader.nextText(); text != null; text = reader.nextText()) {
+                queue.put(text);
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                queue.clear();
+                for (Thread worker : workers) worker.interrupt();
+            }
+            for (int t = 0; t < threads; t++) queue.put(END);
+            for (Thread worker : workers) worker.join();
+        }
+        return parsed.sum();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.err.println("usage: PgnReader <file.pgn> [--threads=N]");
+            System.exit(2);
+        }
+        Path path = Path.of(args[0]);
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--threads=")) threads = Integer.parseInt(args[i].substring(10));
+            else throw new IllegalArgumentException("Unknown option: " + args[i]);
+        }
+
+        LongAdder plies = new LongAdder();
+        LongAdder failed = new LongAdder();
+        long start = System.nanoTime();
+        long games = forEach(path, threads, game -> plies.add(game.getMoveCount()), ex -> {
+            failed.increment();
+            System.err.println(ex.getMessage());
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("games: %d (%d failed) in %.2f s (%.0f games/s) on %d threads%n",
+                games, failed.sum(), seconds, games / seconds, threads);
+        System.out.printf("moves: %d (%.0f moves/s)%n", plies.sum(), plies.sum() / seconds);
+    }
+
+    private static int tagEnd(String text, int start) {
+        boolean quoted = false;
+        for (int i = start + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && quoted) i++;
+            else if (c == '"') quoted = !quoted;
+            else if (c == ']' && !quoted) return i;
+        }
+        throw new IllegalArgumentException("Unterminated tag: " + text.substring(start, Math.min(text.length(), start + 40)));
+    }
+
+    private static void parseTag(String tag, Map<String, String> tags) {
+        int quote = tag.indexOf('"');
+        if (quote < 0) throw new IllegalArgumentException("Invalid tag: " + tag);
+        String name = tag.substring(0, quote).trim();
+        StringBuilder value = new StringBuilder();
+        for (int i = quote + 1; i < tag.length() && tag.charAt(i) != '"'; i++) {
+            char c = tag.charAt(i);
+            if (c == '\\' && i + 1 < tag.length()) c = tag.charAt(++i);
+            value.append(c);
+        }
+        tags.put(name, value.toString());
+    }
+
+    private static int skipVariation(String text, int start) {
+        int depth = 0;
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '{') {
+                int end = text.indexOf('}', i);
+                if (end < 0) return text.length();
+                i = end;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return text.length();
+    }
+
+    private static String describe(Map<String, String> tags) {
+        return tags.getOrDefault("White", "?") + " - " + tags.getOrDefault("Black", "?")
+                + " (" + tags.getOrDefault("Date", "?") + ")";
+    }
+
+}
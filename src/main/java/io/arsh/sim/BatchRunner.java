@@ -0,0 +1,163 @@
+package io.arsh.sim;
+
+import io.arsh.game.GameSession;
+import io.arsh.game.Result;
+import io.arsh.tablebase.Tablebase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+public class BatchRunner {
+
+    private final int threads;
+    private final int maxPlies;
+    private final IntFunction<MoveChooser> choosers;
+    private Tablebase tablebase = Tablebase.getDefault();
+
+    public BatchRunner(int threads, int maxPlies, IntFunction<MoveChooser> choosers) {
+        this.threads = threads;
+        this.maxPlies = maxPlies;
+        this.choosers = choosers;
+    }
+
+    // Games that reach a position covered by the tablebase end with its result.
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    public String run(int games) throws InterruptedException {
+        Stats stats = new Stats();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> running = new ArrayList<>(games);
+            for (int i = 0; i < games; i++) {
+                int game = i;
+                running.add(pool.submit(() -> play(choosers.apply(game), stats)));
+            }
+            for (Future<?> future : running) {
+                try {
+                    future.get();
+                } catch (ExecutionException ex) {
+                    ex.printStackTrace();
+                    stats.failed.increment();
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return summary(stats, games, System.nanoTime() - start);
+    }
+
+    public Result play(MoveChooser chooser) {
+        return play(chooser, new Stats());
+    }
+
+    // Only a game that finishes adds its result and moves; latency covers every move that was chosen.
+    private Result play(MoveChooser chooser, Stats stats) {
+        GameSession session = new GameSession();
+        session.setTablebase(tablebase);
+
+        int plies = 0;
+        for (; plies < maxPlies && !session.isOver(); plies++) {
+            long start = System.nanoTime();
+            int move = chooser.choose(session.getBoard(), session.getLegalMoves());
+            stats.latency.record(System.nanoTime() - start);
+
+            session.play(move);
+        }
+        if (!session.isOver()) session.adjudicate(Result.DRAW);
+
+        Result result = session.getResult();
+        stats.results[result.ordinal()].increment();
+        stats.plies.add(plies);
+        return result;
+    }
+
+    private String summary(Stats stats, int games, long nanos) {
+        double seconds = nanos / 1e9;
+        long completed = games - stats.failed.sum();
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("games: %d in %.2f s (%.1f games/s) on %d threads%n", completed, seconds, completed / seconds, threads));
+        if (stats.failed.sum() > 0) out.append(String.format("failed: %d%n", stats.failed.sum()));
+        for (Result result : Result.values()) {
+            out.append(String.format("%s: %d%n", result, stats.results[result.ordinal()].sum()));
+        }
+        long plies = stats.plies.sum();
+        out.append(String.format("moves: %d (%.0f moves/s)%n", plies, plies / seconds));
+        LatencyHistogram latency = stats.latency;
+        out.append(String.format("move latency p50 < %d ns, p99 < %d ns%n", latency.percentile(0.5), latency.percentile(0.99)));
+        out.append(latency.format());
+        return out.toString();
+    }
+
+    // Statistics of one run() call.
+    private static final class Stats {
+
+        final LongAdder[] results = new LongAdder[Result.values().length];
+        final LongAdder plies = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        Stats() {
+            for (int i = 0; i < results.length; i++) results[i] = new LongAdder();
+        }
+
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int games = 100;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxPlies = 400;
+        String chooser = "random";
+        int depth = 4;
+        long moveTime = 100;
+        long seed = 1;
+        Path out = null;
+        Path tablebase = null;
+
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            String value = option.length > 1 ? option[1] : "";
+            switch (option[0]) {
+                case "--games" -> games = Integer.parseInt(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--max-plies" -> maxPlies = Integer.parseInt(value);
+                case "--chooser" -> chooser = value;
+                case "--depth" -> depth = Integer.parseInt(value);
+                case "--movetime" -> moveTime = Long.parseLong(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--out" -> out = Path.of(value);
+                case "--tablebase" -> tablebase = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        IntFunction<MoveChooser> choosers;
+        if (chooser.equals("engine")) {
+            int engineDepth = depth;
+            long engineTime = moveTime;
+            choosers = game -> MoveChooser.engine(engineDepth, engineTime);
+        } else if (chooser.equals("random")) {
+            long baseSeed = seed;
+            choosers = game -> MoveChooser.random(baseSeed + game);
+        } else {
+            throw new IllegalArgumentException("Unknown chooser: " + chooser);
+        }
+
+        BatchRunner runner = new BatchRunner(threads, maxPlies, choosers);
+        if (tablebase != null) runner.setTablebase(new Tablebase(tablebase));
+        String summary = runner.run(games);
+        System.out.print(summary);
+        if (out != null) Files.writeString(out, summary);
+    }
+
+}
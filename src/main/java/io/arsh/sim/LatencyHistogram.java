@@ -0,0 +1,42 @@
+package io.arsh.sim;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long nanos) {
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(1, nanos)));
+        counts.incrementAndGet(bucket);
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) total += counts.get(i);
+        return total;
+    }
+
+    public long percentile(double fraction) {
+        long target = (long) Math.ceil(count() * fraction);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target && seen > 0) return 1L << i;
+        }
+        return 0;
+    }
+
+    public String format() {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = counts.get(i);
+            if (count == 0) continue;
+            out.append(String.format("  < %,12d ns: %d%n", 1L << i, count));
+        }
+        return out.toString();
+    }
+
+}
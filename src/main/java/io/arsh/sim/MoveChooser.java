@@ -0,0 +1,24 @@
+package io.arsh.sim;
+
+import io.arsh.engine.Engine;
+import io.arsh.engine.TranspositionTable;
+import io.arsh.game.Board;
+import io.arsh.game.models.MoveList;
+
+import java.util.SplittableRandom;
+
+public interface MoveChooser {
+
+    int choose(Board board, MoveList legalMoves);
+
+    static MoveChooser random(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        return (board, legalMoves) -> legalMoves.get(random.nextInt(legalMoves.size()));
+    }
+
+    static MoveChooser engine(int depth, long moveTimeMillis) {
+        Engine engine = new Engine(depth, moveTimeMillis, 1, new TranspositionTable(4));
+        return (board, legalMoves) -> engine.search(board, board.isWhiteToMove());
+    }
+
+}
@@ -0,0 +1,86 @@
+package io.arsh.tablebase;
+
+import io.arsh.game.models.Piece;
+import io.arsh.game.models.PieceType;
+
+import java.util.Arrays;
+
+// A material signature such as "KQvK" and the piece order used to index its table.
+final class Material {
+
+    private static final String LETTERS = "PNBRQK";
+
+    final String signature;
+    final Piece[] pieces;
+    final int size;
+
+    private Material(String signature, Piece[] pieces) {
+        this.signature = signature;
+        this.pieces = pieces;
+        this.size = 2 << 6 * pieces.length;
+    }
+
+    static Material parse(String signature) {
+        String[] sides = signature.split("v");
+        if (sides.length != 2 || !sides[0].startsWith("K") || !sides[1].startsWith("K")) {
+            throw new IllegalArgumentException("Invalid material: " + signature);
+        }
+        Piece[] pieces = new Piece[sides[0].length() + sides[1].length()];
+        int count = 0;
+        for (int side = 0; side < 2; side++) {
+            for (char c : sides[side].toCharArray()) {
+                int type = LETTERS.indexOf(c);
+                if (type < 0) throw new IllegalArgumentException("Invalid material: " + signature);
+                pieces[count++] = Piece.of(PieceType.values()[type], side == 0);
+            }
+        }
+        Material material = of(pieces);
+        if (!material.signature.equals(signature)) {
+            throw new IllegalArgumentException("Material is not canonical: " + signature + " (use " + material.signature + ")");
+        }
+        return material;
+    }
+
+    // Orders the pieces of one position; the stronger side is always white in the canonical form.
+    static Material of(Piece[] pieces) {
+        String white = side(pieces, true), black = side(pieces, false);
+        Piece[] ordered = new Piece[pieces.length];
+        int count = 0;
+        for (char c : (white + black).toCharArray()) {
+            ordered[count] = Piece.of(PieceType.values()[LETTERS.indexOf(c)], count < white.length());
+            count++;
+        }
+        return new Material(white + "v" + black, ordered);
+    }
+
+    static boolean isMirrored(Piece[] pieces) {
+        String white = side(pieces, true), black = side(pieces, false);
+        int strength = strength(white) - strength(black);
+        return strength < 0 || strength == 0 && white.compareTo(black) < 0;
+    }
+
+    static Piece mirror(Piece piece) {
+        return Piece.of(piece.getType(), !piece.isWhite());
+    }
+
+    private static String side(Piece[] pieces, boolean white) {
+        int[] types = new int[pieces.length];
+        int count = 0;
+        for (Piece piece : pieces) {
+            if (piece.isWhite() == white && piece.getType() != PieceType.KING) {
+                types[count++] = piece.getType().ordinal();
+            }
+        }
+        Arrays.sort(types, 0, count);
+        StringBuilder side = new StringBuilder("K");
+        for (int i = count - 1; i >= 0; i--) side.append(LETTERS.charAt(types[i]));
+        return side.toString();
+    }
+
+    private static int strength(String side) {
+        int strength = 0;
+        for (char c : side.toCharArray()) strength += PieceType.values()[LETTERS.indexOf(c)].getValue();
+        return strength;
+    }
+
+}
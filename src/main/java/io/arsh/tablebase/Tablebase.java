@@ -0,0 +1,274 @@
+package io.arsh.tablebase;
+
+import io.arsh.game.Attacks;
+import io.arsh.game.Board;
+import io.arsh.game.Result;
+import io.arsh.game.Rules;
+import io.arsh.game.models.Move;
+import io.arsh.game.models.MoveList;
+import io.arsh.game.models.Piece;
+import io.arsh.game.models.PieceType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static io.arsh.game.Bitboards.first;
+
+// Values are stored one byte per position from the side to move's view:
+// 0 is a draw, n > 0 mates in n plies, and -(n + 1) is mated in n plies.
+public class Tablebase {
+
+    public static final int MAX_PIECES = 4;
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    static final long MAGIC = 0x4152534854423031L;
+    static final int HEADER = 8;
+
+    // Non-king pieces, numbered from 1 in the order used to pack a material slot.
+    private static final Piece[] MATERIAL_PIECES = Arrays.stream(Piece.values())
+            .filter(piece -> piece.getType() != PieceType.KING).toArray(Piece[]::new);
+    private static final int SLOT_BASE = MATERIAL_PIECES.length + 1;
+    private static final Table MISSING = new Table(null, null, null, false);
+
+    private static Tablebase defaultTablebase;
+    private static boolean defaultLoaded;
+
+    private final Path directory;
+    private final Map<String, Optional<ByteBuffer>> tables = new ConcurrentHashMap<>();
+    // Resolved tables by the material actually on the board, so that probing does not allocate.
+    private final AtomicReferenceArray<Table> slots = new AtomicReferenceArray<>(SLOT_BASE * SLOT_BASE);
+
+    public Tablebase(Path directory) {
+        this.directory = directory;
+    }
+
+    public static synchronized Tablebase getDefault() {
+        if (!defaultLoaded) {
+            defaultLoaded = true;
+            String path = System.getProperty("chess.tablebase");
+            if (path != null) defaultTablebase = new Tablebase(Path.of(path));
+        }
+        return defaultTablebase;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public boolean has(String signature) {
+        return table(signature) != null;
+    }
+
+    // 1 if the side to move wins, 0 for a draw, -1 if it loses.
+    public int probeWdl(Board board) {
+        int value = probe(board);
+        return value == UNKNOWN ? UNKNOWN : Integer.signum(value);
+    }
+
+    // Plies to mate with best play for either side, 0 for a draw.
+    public int probeDtm(Board board) {
+        int value = probe(board);
+        return value == UNKNOWN ? UNKNOWN : plies(value);
+    }
+
+    public Result probeResult(Board board) {
+        int wdl = probeWdl(board);
+        if (wdl == UNKNOWN) return null;
+        if (wdl == 0) return Result.DRAW;
+        return (wdl > 0) == board.isWhiteToMove() ? Result.WHITE_WINS : Result.BLACK_WINS;
+    }
+
+    // Wins as fast as possible, holds draws, and otherwise delays mate the longest.
+    public int bestMove(Board board) {
+        if (probe(board) == UNKNOWN) return Move.NONE;
+
+        MoveList moves = new MoveList();
+        Rules.generateLegalMoves(board, board.isWhiteToMove(), moves);
+        int best = Move.NONE, bestRank = Integer.MIN_VALUE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            board.makeMove(move);
+            int reply = probe(board);
+            board.unmakeMove();
+            if (reply == UNKNOWN) return Move.NONE;
+
+            int rank = reply < 0 ? 1000 - plies(reply) : reply == 0 ? 0 : -1000 + plies(reply);
+            if (rank > bestRank) {
+                bestRank = rank;
+                best = move;
+            }
+        }
+        return best;
+    }
+
+    // The raw stored value, or UNKNOWN when no table covers the position.
+    public int probe(Board board) {
+        if (board.getPieceCount(true) + board.getPieceCount(false) > MAX_PIECES) return UNKNOWN;
+        if (board.getPieceCount(Piece.WHITE_KING) != 1 || board.getPieceCount(Piece.BLACK_KING) != 1) return UNKNOWN;
+        int slot = slot(board);
+        if (slot < 0) return UNKNOWN;
+        if (slot == 0) return 0;
+        Table table = slots.get(slot);
+        if (table == null) {
+            table = resolve(board);
+            slots.set(slot, table);
+        }
+        if (table == MISSING || canCastle(board, true) || canCastle(board, false) || canCaptureEnPassant(board)) {
+            return UNKNOWN;
+        }
+
+        int index = 0;
+        for (int i = 0; i < table.pieces.length; i++) {
+            long bits = board.getPieces(table.pieces[i]);
+            for (int skip = 0; skip < table.occurrence[i]; skip++) bits &= bits - 1;
+            int square = first(bits);
+            index = index * 64 + (table.mirrored ? square ^ 56 : square);
+        }
+        boolean whiteToMove = board.isWhiteToMove() != table.mirrored;
+        return table.buffer.get(HEADER + index * 2 + (whiteToMove ? 0 : 1));
+    }
+
+    int value(Piece[] pieces, int[] squares, int count, boolean whiteToMove) {
+        if (count == 2) return 0;
+
+        Piece[] actual = pieces;
+        if (Material.isMirrored(pieces)) {
+            actual = new Piece[count];
+            for (int i = 0; i < count; i++) actual[i] = Material.mirror(pieces[i]);
+            whiteToMove = !whiteToMove;
+        }
+        boolean mirrored = actual != pieces;
+        Material material = Material.of(actual);
+        ByteBuffer table = table(material.signature);
+        if (table == null) return UNKNOWN;
+
+        long used = 0;
+        int index = 0;
+        for (Piece slot : material.pieces) {
+            for (int i = 0; i < count; i++) {
+                if ((used & 1L << i) == 0 && actual[i] == slot) {
+                    used |= 1L << i;
+                    index = index * 64 + (mirrored ? squares[i] ^ 56 : squares[i]);
+                    break;
+                }
+            }
+        }
+        return table.get(HEADER + index * 2 + (whiteToMove ? 0 : 1));
+    }
+
+    public static int plies(int value) {
+        return value >= 0 ? value : -value - 1;
+    }
+
+    static Path file(Path directory, String signature) {
+        return directory.resolve(signature + ".tb");
+    }
+
+    void refresh(String signature) {
+        tables.remove(signature);
+        for (int i = 0; i < slots.length(); i++) slots.set(i, null);
+    }
+
+    // Packs the non-king material, two pieces at most, into a small number; -1 for more.
+    private static int slot(Board board) {
+        int slot = 0, count = 0;
+        for (int i = 0; i < MATERIAL_PIECES.length; i++) {
+            int pieces = board.getPieceCount(MATERIAL_PIECES[i]);
+            if (pieces == 0) continue;
+            count += pieces;
+            if (count > MAX_PIECES - 2) return -1;
+            for (int j = 0; j < pieces; j++) slot = slot * SLOT_BASE + i + 1;
+        }
+        return slot;
+    }
+
+    private Table resolve(Board board) {
+        int count = board.getPieceCount(true) + board.getPieceCount(false);
+        Piece[] pieces = new Piece[count];
+        int n = 0;
+        pieces[n++] = Piece.WHITE_KING;
+        pieces[n++] = Piece.BLACK_KING;
+        for (Piece piece : MATERIAL_PIECES) {
+            for (int i = 0; i < board.getPieceCount(piece); i++) pieces[n++] = piece;
+        }
+
+        boolean mirrored = Material.isMirrored(pieces);
+        if (mirrored) {
+            for (int i = 0; i < count; i++) pieces[i] = Material.mirror(pieces[i]);
+        }
+        Material material = Material.of(pieces);
+        ByteBuffer buffer = table(material.signature);
+        if (buffer == null) return MISSING;
+
+        Piece[] actual = new Piece[count];
+        int[] occurrence = new int[count];
+        for (int i = 0; i < count; i++) {
+            actual[i] = mirrored ? Material.mirror(material.pieces[i]) : material.pieces[i];
+            for (int j = 0; j < i; j++) if (actual[j] == actual[i]) occurrence[i]++;
+        }
+        return new Table(buffer, actual, occurrence, mirrored);
+    }
+
+    private ByteBuffer table(String signature) {
+        return tables.computeIfAbsent(signature, this::map).orElse(null);
+    }
+
+    private Optional<ByteBuffer> map(String signature) {
+        Path path = file(directory, signature);
+        if (!Files.isRegularFile(path)) return Optional.empty();
+        // A bad file is reported once and then treated as missing, since the result is cached.
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() != HEADER + Material.parse(signature).size) {
+                throw new IOException("Corrupt tablebase file: " + path);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getLong(0) != MAGIC) throw new IOException("Corrupt tablebase file: " + path);
+            return Optional.of(buffer);
+        } catch (IOException ex) {
+            System.err.println("Ignoring tablebase " + signature + ": " + ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static boolean canCastle(Board board, boolean white) {
+        int row = white ? 7 : 0;
+        Piece rook = Piece.of(PieceType.ROOK, white);
+        if (board.getPiece(row, 4) != Piece.of(PieceType.KING, white) || board.hasMoved(row, 4)) return false;
+        return board.getPiece(row, 0) == rook && !board.hasMoved(row, 0)
+                || board.getPiece(row, 7) == rook && !board.hasMoved(row, 7);
+    }
+
+    private static boolean canCaptureEnPassant(Board board) {
+        int square = board.getEnPassantSquare();
+        if (square == -1) return false;
+        boolean white = board.isWhiteToMove();
+        return (Attacks.pawn(square, !white) & board.getPieces(Piece.of(PieceType.PAWN, white))) != 0;
+    }
+
+    private static final class Table {
+
+        final ByteBuffer buffer;
+        // The board piece and which of its instances fill each index slot of the table.
+        final Piece[] pieces;
+        final int[] occurrence;
+        final boolean mirrored;
+
+        Table(ByteBuffer buffer, Piece[] pieces, int[] occurrence, boolean mirrored) {
+            this.buffer = buffer;
+            this.pieces = pieces;
+            this.occurrence = occurrence;
+            this.mirrored = mirrored;
+        }
+
+    }
+
+}
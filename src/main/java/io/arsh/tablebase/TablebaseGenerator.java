@@ -0,0 +1,308 @@
+package io.arsh.tablebase;
+
+import io.arsh.game.Attacks;
+import io.arsh.game.models.Piece;
+import io.arsh.game.models.PieceType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+import static io.arsh.game.Bitboards.*;
+
+// Solves a material class by iterating ply by ply: a position is won in k plies if some move
+// reaches a position lost in k - 1, and lost in k if every move reaches a position won in at most k - 1.
+// Captures and promotions look up the smaller tables, which are generated first.
+public class TablebaseGenerator {
+
+    private static final short UNKNOWN = Short.MIN_VALUE;
+    private static final short INVALID = Short.MIN_VALUE + 1;
+    private static final int CHUNK = 1 << 12;
+    private static final int MAX_MOVES = 128;
+
+    private final Tablebase tablebase;
+
+    public TablebaseGenerator(Path directory) {
+        this.tablebase = new Tablebase(directory);
+    }
+
+    public void generate(String signature) throws IOException {
+        Material material = Material.parse(signature);
+        if (material.pieces.length > Tablebase.MAX_PIECES) {
+            throw new IllegalArgumentException("At most " + Tablebase.MAX_PIECES + " pieces: " + signature);
+        }
+        if (tablebase.has(signature)) return;
+        for (String dependency : dependencies(material)) generate(dependency);
+
+        long start = System.nanoTime();
+        byte[] values = solve(material);
+        write(material, values);
+        tablebase.refresh(signature);
+        System.out.printf("%s: %d positions in %d ms%n", signature, material.size, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static Set<String> dependencies(Material material) {
+        Set<String> dependencies = new LinkedHashSet<>();
+        Piece[] pieces = material.pieces;
+        if (pieces.length <= 2) return dependencies;
+        for (int i = 0; i < pieces.length; i++) {
+            if (pieces[i].getType() == PieceType.KING) continue;
+
+            List<Piece> rest = new ArrayList<>(Arrays.asList(pieces));
+            rest.remove(i);
+            if (rest.size() > 2) dependencies.add(canonical(rest.toArray(new Piece[0])));
+
+            if (pieces[i].getType() == PieceType.PAWN) {
+                Piece[] promoted = pieces.clone();
+                promoted[i] = Piece.of(PieceType.QUEEN, pieces[i].isWhite());
+                dependencies.add(canonical(promoted));
+            }
+        }
+        return dependencies;
+    }
+
+    private static String canonical(Piece[] pieces) {
+        if (!Material.isMirrored(pieces)) return Material.of(pieces).signature;
+        Piece[] mirrored = new Piece[pieces.length];
+        for (int i = 0; i < pieces.length; i++) mirrored[i] = Material.mirror(pieces[i]);
+        return Material.of(mirrored).signature;
+    }
+
+    private byte[] solve(Material material) {
+        short[] dtm = new short[material.size];
+        int chunks = (material.size + CHUNK - 1) / CHUNK;
+        AtomicInteger maxExternal = new AtomicInteger();
+
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            Solver solver = new Solver(material, dtm);
+            int external = 0;
+            for (int index = chunk * CHUNK; index < Math.min(material.size, (chunk + 1) * CHUNK); index++) {
+                dtm[index] = solver.initial(index);
+                external = Math.max(external, solver.maxExternal);
+            }
+            maxExternal.accumulateAndGet(external, Math::max);
+        });
+
+        for (int ply = 1; ; ply++) {
+            if (ply > 127) throw new IllegalStateException(material.signature + " needs more than 127 plies");
+            int depth = ply;
+            LongAdder changed = new LongAdder();
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                Solver solver = new Solver(material, dtm);
+                for (int index = chunk * CHUNK; index < Math.min(material.size, (chunk + 1) * CHUNK); index++) {
+                    if (dtm[index] != UNKNOWN) continue;
+                    short value = solver.step(index, depth);
+                    if (value != UNKNOWN) {
+                        dtm[index] = value;
+                        changed.increment();
+                    }
+                }
+            });
+            if (changed.sum() == 0 && ply > maxExternal.get() + 1) break;
+        }
+
+        byte[] values = new byte[material.size];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = dtm[i] == UNKNOWN || dtm[i] == INVALID ? 0 : (byte) dtm[i];
+        }
+        return values;
+    }
+
+    private void write(Material material, byte[] values) throws IOException {
+        Path target = Tablebase.file(tablebase.getDirectory(), material.signature);
+        Files.createDirectories(tablebase.getDirectory());
+        Path temp = Files.createTempFile(tablebase.getDirectory(), material.signature, ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(Tablebase.HEADER).putLong(Tablebase.MAGIC).flip();
+            while (header.hasRemaining()) channel.write(header);
+            ByteBuffer body = ByteBuffer.wrap(values);
+            while (body.hasRemaining()) channel.write(body);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private final class Solver {
+
+        private final Material material;
+        private final short[] dtm;
+        private final int n;
+        private final int[] squares;
+        private final int[] values = new int[MAX_MOVES];
+        private final Piece[] successor;
+        private final int[] successorSquares;
+        private int maxExternal;
+
+        Solver(Material material, short[] dtm) {
+            this.material = material;
+            this.dtm = dtm;
+            this.n = material.pieces.length;
+            this.squares = new int[n];
+            this.successor = new Piece[n];
+            this.successorSquares = new int[n];
+        }
+
+        short initial(int index) {
+            int count = successors(index);
+            if (count < 0) return INVALID;
+            if (count > 0) return UNKNOWN;
+            boolean white = (index & 1) == 0;
+            return isAttacked(squares[king(white)], !white, -1, occupancy(-1)) ? (short) -1 : 0;
+        }
+
+        short step(int index, int ply) {
+            int count = successors(index);
+            boolean lost = true;
+            for (int i = 0; i < count; i++) {
+                int value = values[i];
+                if (value == -ply) return (short) ply;
+                if (value <= 0 || value > ply - 1) lost = false;
+            }
+            return lost ? (short) -(ply + 1) : UNKNOWN;
+        }
+
+        // Fills values with the successors' values, or returns -1 for an unreachable position.
+        private int successors(int index) {
+            boolean white = (index & 1) == 0;
+            int rest = index >>> 1;
+            long occupied = 0L;
+            for (int i = n - 1; i >= 0; i--) {
+                squares[i] = rest & 63;
+                rest >>>= 6;
+                if ((occupied & bit(squares[i])) != 0) return -1;
+                occupied |= bit(squares[i]);
+                if (material.pieces[i].getType() == PieceType.PAWN && (row(squares[i]) == 0 || row(squares[i]) == 7)) {
+                    return -1;
+                }
+            }
+            if (isAttacked(squares[king(!white)], white, -1, occupied)) return -1;
+
+            long own = 0L, enemy = 0L;
+            for (int i = 0; i < n; i++) {
+                if (material.pieces[i].isWhite() == white) own |= bit(squares[i]);
+                else enemy |= bit(squares[i]);
+            }
+
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                Piece piece = material.pieces[i];
+                if (piece.isWhite() != white) continue;
+                int from = squares[i];
+                long targets = switch (piece.getType()) {
+                    case PAWN -> pawnTargets(from, white, occupied, enemy);
+                    case KNIGHT -> Attacks.knight(from);
+                    case BISHOP -> Attacks.bishop(from, occupied);
+                    case ROOK -> Attacks.rook(from, occupied);
+                    case QUEEN -> Attacks.queen(from, occupied);
+                    case KING -> Attacks.king(from);
+                } & ~own;
+
+                for (; targets != 0; targets &= targets - 1) {
+                    int to = first(targets);
+                    int captured = -1;
+                    if ((enemy & bit(to)) != 0) {
+                        for (int j = 0; j < n; j++) if (j != i && squares[j] == to) captured = j;
+                        if (material.pieces[captured].getType() == PieceType.KING) continue;
+                    }
+
+                    squares[i] = to;
+                    int kingSquare = squares[king(white)];
+                    boolean legal = !isAttacked(kingSquare, !white, captured, occupancy(captured));
+                    if (legal) values[count++] = value(i, captured, white);
+                    squares[i] = from;
+                }
+            }
+            return count;
+        }
+
+        private int value(int moved, int captured, boolean white) {
+            boolean promotion = material.pieces[moved].getType() == PieceType.PAWN
+                    && (row(squares[moved]) == 0 || row(squares[moved]) == 7);
+            if (captured == -1 && !promotion) {
+                int index = 0;
+                for (int i = 0; i < n; i++) index = index * 64 + squares[i];
+                return dtm[index * 2 + (white ? 1 : 0)];
+            }
+
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                if (i == captured) continue;
+                Piece piece = material.pieces[i];
+                successor[count] = i == moved && promotion ? Piece.of(PieceType.QUEEN, piece.isWhite()) : piece;
+                successorSquares[count++] = squares[i];
+            }
+            int value = tablebase.value(Arrays.copyOf(successor, count), successorSquares, count, !white);
+            if (value == Tablebase.UNKNOWN) throw new IllegalStateException("Missing table for a successor of " + material.signature);
+            maxExternal = Math.max(maxExternal, Tablebase.plies(value));
+            return value;
+        }
+
+        private long pawnTargets(int from, boolean white, long occupied, long enemy) {
+            int dir = white ? -8 : 8;
+            long targets = Attacks.pawn(from, white) & enemy;
+            int one = from + dir;
+            if ((occupied & bit(one)) == 0) {
+                targets |= bit(one);
+                int two = one + dir;
+                if (row(from) == (white ? 6 : 1) && (occupied & bit(two)) == 0) targets |= bit(two);
+            }
+            return targets;
+        }
+
+        private long occupancy(int excluded) {
+            long occupied = 0L;
+            for (int i = 0; i < n; i++) if (i != excluded) occupied |= bit(squares[i]);
+            return occupied;
+        }
+
+        private int king(boolean white) {
+            for (int i = 0; i < n; i++) {
+                if (material.pieces[i].isWhite() == white && material.pieces[i].getType() == PieceType.KING) return i;
+            }
+            throw new IllegalStateException("No king in " + material.signature);
+        }
+
+        private boolean isAttacked(int target, boolean byWhite, int excluded, long occupied) {
+            for (int i = 0; i < n; i++) {
+                Piece piece = material.pieces[i];
+                if (i == excluded || piece.isWhite() != byWhite) continue;
+                int from = squares[i];
+                long attacks = switch (piece.getType()) {
+                    case PAWN -> Attacks.pawn(from, byWhite);
+                    case KNIGHT -> Attacks.knight(from);
+                    case BISHOP -> Attacks.bishop(from, occupied);
+                    case ROOK -> Attacks.rook(from, occupied);
+                    case QUEEN -> Attacks.queen(from, occupied);
+                    case KING -> Attacks.king(from);
+                };
+                if ((attacks & bit(target)) != 0) return true;
+            }
+            return false;
+        }
+
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: TablebaseGenerator <directory> [KQvK KRvK ...]");
+            System.exit(2);
+        }
+        TablebaseGenerator generator = new TablebaseGenerator(Path.of(args[0]));
+        String[] signatures = args.length > 1
+                ? Arrays.copyOfRange(args, 1, args.length)
+                : new String[]{"KQvK", "KRvK", "KBvK", "KNvK", "KPvK"};
+        for (String signature : signatures) generator.generate(signature);
+    }
+
+}
@@ -0,0 +1,110 @@
+package io.arsh.ui;
+
+import io.arsh.engine.Engine;
+import io.arsh.engine.SearchInfo;
+import io.arsh.game.Board;
+import io.arsh.game.Rules;
+import io.arsh.game.models.Move;
+import io.arsh.game.models.MoveList;
+
+import javax.swing.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+// Runs the engine on its own thread and hands progress and results back on the Event Dispatch Thread.
+// Must be driven from the EDT: every new request or cancel() invalidates the previous one,
+// and callbacks of an invalidated request are dropped.
+public class AsyncEngine {
+
+    private final Engine engine;
+    private final long moveTimeMillis;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "engine");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Future<?> running;
+    private int generation;
+
+    public AsyncEngine(Engine engine, long moveTimeMillis) {
+        this.engine = engine;
+        this.moveTimeMillis = moveTimeMillis;
+    }
+
+    public void think(Board position, Consumer<SearchInfo> progress, IntConsumer done) {
+        cancel();
+        int request = generation;
+        int search = engine.request();
+        Board board = new Board(position);
+        running = executor.submit(() -> {
+            int move;
+            try {
+                move = engine.search(search, board, board.isWhiteToMove(), moveTimeMillis, info -> publish(request, progress, info));
+            } catch (RuntimeException ex) {
+                // A failed search still has to answer, or the side to move would never move again.
+                ex.printStackTrace();
+                move = fallback(board);
+            }
+            int chosen = move;
+            SwingUtilities.invokeLater(() -> {
+                if (request == generation) done.accept(chosen);
+            });
+        });
+    }
+
+    // Searches the position until cancelled, filling the shared transposition table for the next think().
+    public void ponder(Board position, Consumer<SearchInfo> progress) {
+        cancel();
+        int request = generation;
+        int search = engine.request();
+        Board board = new Board(position);
+        running = executor.submit(() -> {
+            try {
+                engine.search(search, board, board.isWhiteToMove(), Engine.INFINITE, info -> publish(request, progress, info));
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+            }
+        });
+    }
+
+    public boolean isThinking() {
+        return running != null && !running.isDone();
+    }
+
+    // Ends the current search early; a think() still delivers the best move found so far.
+    public void stop() {
+        engine.stop();
+    }
+
+    public void cancel() {
+        generation++;
+        if (running != null) {
+            running.cancel(true);
+            running = null;
+        }
+        engine.stop();
+    }
+
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+        engine.shutdown();
+    }
+
+    private static int fallback(Board board) {
+        MoveList moves = new MoveList();
+        Rules.generateLegalMoves(board, board.isWhiteToMove(), moves);
+        return moves.isEmpty() ? Move.NONE : moves.get(0);
+    }
+
+    private void publish(int request, Consumer<SearchInfo> progress, SearchInfo info) {
+        SwingUtilities.invokeLater(() -> {
+            if (request == generation) progress.accept(info);
+        });
+    }
+
+}
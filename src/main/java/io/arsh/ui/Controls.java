@@ -1,36 +1,74 @@
 package io.arsh.ui;
 
 import io.arsh.Panel;
+import io.arsh.engine.Engine;
+import io.arsh.engine.OpeningBook;
+import io.arsh.engine.SearchInfo;
+import io.arsh.engine.TranspositionTable;
 import io.arsh.game.Board;
-import io.arsh.game.Rules;
+import io.arsh.game.GameSession;
+import io.arsh.game.Mode;
+import io.arsh.game.Result;
+import io.arsh.game.San;
 import io.arsh.game.models.Move;
 import io.arsh.game.models.Piece;
+import io.arsh.tablebase.Tablebase;
 
+import javax.swing.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Random;
 
 public class Controls extends MouseAdapter {
 
+    private static final int ENGINE_DELAY = 100;
+    private static final long ENGINE_MOVE_TIME = 1000;
+    private static final int ANALYSIS_MOVES = 8;
+    private static final boolean PONDER = Boolean.parseBoolean(System.getProperty("chess.ponder", "true"));
+    private static final int ENGINE_THREADS = Integer.getInteger("chess.threads", 1);
+    // One table for every board, bounded regardless of the thread count.
+    private static final int ENGINE_HASH_MB = Math.max(1, Math.min(Engine.MAX_HASH_MB, Integer.getInteger("chess.hash", Engine.DEFAULT_HASH_MB)));
+    private static final String BOOK_PATH = System.getProperty("chess.book");
+    private static TranspositionTable table;
+    private static OpeningBook book;
+    private static boolean bookLoaded;
+
     private final Panel panel;
+    private final GameSession session;
     private final Board board;
+    private final Mode mode;
+    private AsyncEngine engine;
+    private Timer engineTimer;
+    private int[] expectedLine = new int[0];
+    private final Random random = new Random();
 
-    private boolean isGameOver = false;
-    private boolean isWhiteTurn = true;
     private int selectedRow = -1, selectedCol = -1;
     private List<Move> legalMoves = null;
 
-    public Controls(Panel panel) {
+    public Controls(Panel panel, Mode mode) {
         this.panel = panel;
-        this.board = panel.getBoard();
+        this.session = panel.getSession();
+        this.session.setTablebase(Tablebase.getDefault());
+        this.board = session.getBoard();
+        this.mode = mode;
+        scheduleEngineMove();
     }
 
     @Override
     public void mousePressed(MouseEvent event) {
-        if (isGameOver) {
+        if (session.isOver()) {
             resetGame();
             return;
         }
+        // A right click while the engine thinks makes it play the best move found so far.
+        if (SwingUtilities.isRightMouseButton(event)) {
+            if (engine != null && mode.isAi(session.isWhiteToMove())) engine.stop();
+            return;
+        }
+        if (mode.isAi(session.isWhiteToMove())) return;
 
         int col = (event.getX() - panel.getMargin()) / panel.getTileSize();
         int row = (event.getY() - panel.getMargin()) / panel.getTileSize();
@@ -42,58 +80,142 @@ public class Controls extends MouseAdapter {
             selectPiece(row, col);
         }
 
-        panel.repaint();
+        panel.refreshBoard();
     }
 
     private void resetGame() {
+        if (engineTimer != null) engineTimer.stop();
+        if (engine != null) engine.cancel();
+        expectedLine = new int[0];
         panel.setTitle(null);
-        board.reset();
-        isWhiteTurn = true;
-        isGameOver = false;
+        panel.setAnalysis(null);
+        session.reset();
         clearSelections();
-        panel.repaint();
+        panel.refreshBoard();
+        scheduleEngineMove();
     }
 
     private void selectPiece(int row, int col) {
         Piece piece = board.getPiece(row, col);
-        if (piece == null || piece.isWhite() != isWhiteTurn) return;
+        if (piece == null || piece.isWhite() != session.isWhiteToMove()) return;
 
         clearSelections();
         selectedRow = row;
         selectedCol = col;
         panel.setTile(row, col, Texture.TILE_SELECT);
 
-        legalMoves = Rules.getLegalMoves(board, row, col);
+        legalMoves = session.getLegalMoves(row, col);
         highlightLegalMoves();
     }
 
     private void performMove(int toRow, int toCol) {
-        board.movePiece(selectedRow, selectedCol, toRow, toCol);
-        isWhiteTurn = !isWhiteTurn;
+        if (engine != null) engine.cancel();
+        session.play(selectedRow, selectedCol, toRow, toCol);
         clearSelections();
         checkGameState();
+        scheduleEngineMove();
     }
 
-    private void checkGameState() {
-        if (areOnlyKingsLeft() || isStalemate()) {
-            endGame(Texture.TITLE_TIE);
-        } else if (isCheckmate()) {
-            endGame(isWhiteTurn ? Texture.TITLE_BLACK_WINS : Texture.TITLE_WHITE_WINS);
-        } else {
-            highlightKingIfInCheck();
+    private void scheduleEngineMove() {
+        if (session.isOver()) return;
+        if (!mode.isAi(session.isWhiteToMove())) {
+            startPondering();
+            return;
+        }
+        engineTimer = new Timer(ENGINE_DELAY, event -> playEngineMove());
+        engineTimer.setRepeats(false);
+        engineTimer.start();
+    }
+
+    // The search runs off the Event Dispatch Thread; its result comes back through applyEngineMove.
+    private void playEngineMove() {
+        if (session.isOver() || !mode.isAi(session.isWhiteToMove())) return;
+        expectedLine = new int[0];
+        Move chosen = getBook() == null ? null : book.pick(board, random);
+        if (chosen != null) {
+            applyEngineMove(chosen);
+            return;
+        }
+
+        Board root = new Board(board);
+        getEngine().think(board, info -> {
+            expectedLine = info.getLine();
+            panel.setAnalysis(describe(root, info));
+        }, move -> {
+            if (move != Move.NONE) applyEngineMove(new Move(move));
+        });
+    }
+
+    private void applyEngineMove(Move chosen) {
+        if (session.isOver() || !mode.isAi(session.isWhiteToMove())) return;
+        clearSelections();
+        selectedRow = chosen.fromRow;
+        selectedCol = chosen.fromCol;
+        performMove(chosen.toRow, chosen.toCol);
+        panel.refreshBoard();
+    }
+
+    // While the human thinks, search the reply the engine expects so that its next search starts from a warm table.
+    private void startPondering() {
+        if (!PONDER || engine == null || !mode.isAi(!session.isWhiteToMove()) || expectedLine.length < 2) return;
+        if ((board.getLastMoveCode() & 0xFFF) != (expectedLine[0] & 0xFFF)) return;
+        int reply = expectedLine[1];
+        if (!session.getLegalMoves().contains(reply)) return;
+
+        Board pondered = new Board(board);
+        String san = San.toSan(pondered, reply);
+        pondered.makeMove(reply);
+        engine.ponder(pondered, info -> panel.setAnalysis("ponder " + san + ": " + describe(pondered, info)));
+    }
+
+    private AsyncEngine getEngine() {
+        if (engine == null) engine = new AsyncEngine(new Engine(64, ENGINE_MOVE_TIME, ENGINE_THREADS, getTable()), ENGINE_MOVE_TIME);
+        return engine;
+    }
+
+    private static String describe(Board root, SearchInfo info) {
+        StringBuilder text = new StringBuilder();
+        text.append("depth ").append(info.getDepth()).append("  ").append(info.getScoreText()).append(' ');
+        Board line = new Board(root);
+        int[] moves = info.getLine();
+        for (int i = 0; i < Math.min(moves.length, ANALYSIS_MOVES); i++) {
+            text.append(' ').append(San.toSan(line, moves[i]));
+            line.makeMove(moves[i]);
         }
+        text.append("  kn/s");
+        for (int i = 0; i < info.getThreads(); i++) text.append(i == 0 ? " " : "/").append(info.getNodesPerSecond(i) / 1000);
+        text.append(String.format("  pawn hits %.0f%%", info.getPawnHitRate() * 100));
+        return text.toString();
+    }
+
+    private static synchronized TranspositionTable getTable() {
+        if (table == null) table = new TranspositionTable(ENGINE_HASH_MB);
+        return table;
     }
 
-    private boolean areOnlyKingsLeft() {
-        int count = 0;
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Piece p = board.getPiece(r, c);
-                if (p != null && !p.isKing()) return false;
-                if (p != null) count++;
+    private static synchronized OpeningBook getBook() {
+        if (!bookLoaded && BOOK_PATH != null) {
+            bookLoaded = true;
+            try {
+                book = OpeningBook.open(Path.of(BOOK_PATH));
+            } catch (IOException ex) {
+                ex.printStackTrace();
             }
         }
-        return count == 2;
+        return book;
+    }
+
+    private void checkGameState() {
+        Result result = session.getResult();
+        if (result == Result.DRAW) {
+            panel.setTitle(Texture.TITLE_TIE);
+        } else if (result == Result.WHITE_WINS) {
+            panel.setTitle(Texture.TITLE_WHITE_WINS);
+        } else if (result == Result.BLACK_WINS) {
+            panel.setTitle(Texture.TITLE_BLACK_WINS);
+        } else {
+            highlightKingIfInCheck();
+        }
     }
 
     private void highlightKingIfInCheck() {
@@ -102,26 +224,17 @@ public class Controls extends MouseAdapter {
     }
 
     private void highlightKing(boolean isWhiteKing) {
-        int[] pos = findKing(isWhiteKing);
-        if (pos == null) return;
+        int square = board.getKingSquare(isWhiteKing);
+        if (square == -1) return;
 
-        int row = pos[0], col = pos[1];
-        boolean inCheck = Rules.isInCheck(board, isWhiteKing);
+        int row = square / 8, col = square % 8;
+        boolean inCheck = isWhiteKing == session.isWhiteToMove() && session.isInCheck();
         if (selectedRow != row || selectedCol != col) {
-            panel.setTile(row, col, inCheck ? Texture.TILE_OPTION : null);
-            if (!inCheck) panel.resetTile(row, col);
+            if (inCheck) panel.setTile(row, col, Texture.TILE_OPTION);
+            else panel.resetTile(row, col);
         }
     }
 
-    private int[] findKing(boolean isWhite) {
-        for (int r = 0; r < 8; r++)
-            for (int c = 0; c < 8; c++) {
-                Piece p = board.getPiece(r, c);
-                if (p != null && p.isKing() && p.isWhite() == isWhite) return new int[]{r, c};
-            }
-        return null;
-    }
-
     private boolean isInvalidCoordinates(int row, int col) {
         return row < 0 || row >= 8 || col < 0 || col >= 8;
     }
@@ -150,26 +263,4 @@ public class Controls extends MouseAdapter {
         }
     }
 
-    private boolean isStalemate() {
-        return !hasLegalMoves(isWhiteTurn) && !Rules.isInCheck(board, isWhiteTurn);
-    }
-
-    private boolean isCheckmate() {
-        return !hasLegalMoves(isWhiteTurn) && Rules.isInCheck(board, isWhiteTurn);
-    }
-
-    private boolean hasLegalMoves(boolean white) {
-        for (int r = 0; r < 8; r++)
-            for (int c = 0; c < 8; c++) {
-                Piece p = board.getPiece(r, c);
-                if (p != null && p.isWhite() == white && !Rules.getLegalMoves(board, r, c).isEmpty())
-                    return true;
-            }
-        return false;
-    }
-
-    private void endGame(Texture title) {
-        panel.setTitle(title);
-        isGameOver = true;
-    }
 }
@@ -0,0 +1,44 @@
+package io.arsh.ui;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ScaledTextures {
+
+    private final GraphicsConfiguration config;
+    private final Map<Long, BufferedImage> images = new HashMap<>();
+
+    public ScaledTextures(GraphicsConfiguration config) {
+        this.config = config;
+    }
+
+    public boolean isFor(GraphicsConfiguration config) {
+        return this.config == config;
+    }
+
+    public BufferedImage get(Texture texture, int width, int height) {
+        long key = (long) texture.ordinal() << 40 | (long) width << 20 | height;
+        BufferedImage image = images.get(key);
+        if (image == null) {
+            image = scale(texture, width, height);
+            images.put(key, image);
+        }
+        return image;
+    }
+
+    public BufferedImage createImage(int width, int height) {
+        if (config == null) return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        return config.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+
+    private BufferedImage scale(Texture texture, int width, int height) {
+        BufferedImage image = createImage(width, height);
+        Graphics2D graph = image.createGraphics();
+        graph.drawImage(texture.getImage(), 0, 0, width, height, null);
+        graph.dispose();
+        return image;
+    }
+
+}
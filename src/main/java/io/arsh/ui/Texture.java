@@ -5,7 +5,11 @@ import io.arsh.game.models.Piece;
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 public enum Texture {
     BOARD("assets/board.png"),
@@ -34,19 +38,59 @@ public enum Texture {
     WHITE_QUEEN("assets/pieces/white/white_queen.png"),
     WHITE_KING("assets/pieces/white/white_king.png");
 
-    private BufferedImage image;
+    private static final EnumMap<Piece, Texture> PIECES = new EnumMap<>(Piece.class);
+
+    static {
+        for (Piece piece : Piece.values()) {
+            PIECES.put(piece, valueOf(piece.name()));
+        }
+    }
+
+    private static final BufferedImage PLACEHOLDER = placeholder();
+
+    private final String path;
+    private volatile BufferedImage image;
 
     Texture(String path) {
-        try {
-            image = ImageIO.read(
-                    Objects.requireNonNull(Piece.class.getClassLoader().getResourceAsStream(path))
-            );
-        } catch (IOException | IllegalArgumentException ex) {
+        this.path = path;
+    }
+
+    public static Texture of(Piece piece) {
+        return PIECES.get(piece);
+    }
+
+    public static CompletableFuture<Void> preload() {
+        return CompletableFuture.runAsync(() -> Arrays.stream(values()).parallel().forEach(Texture::getImage));
+    }
+
+    public BufferedImage getImage() {
+        BufferedImage image = this.image;
+        if (image == null) {
+            synchronized (this) {
+                image = this.image;
+                if (image == null) this.image = image = load();
+            }
+        }
+        return image;
+    }
+
+    private BufferedImage load() {
+        try (InputStream in = Objects.requireNonNull(Texture.class.getClassLoader().getResourceAsStream(path), path)) {
+            BufferedImage image = ImageIO.read(in);
+            if (image != null) return image;
+            System.err.println("Unreadable texture: " + path);
+        } catch (IOException | RuntimeException ex) {
             ex.printStackTrace();
         }
+        return PLACEHOLDER;
     }
 
-    public BufferedImage getImage() {
+    private static BufferedImage placeholder() {
+        BufferedImage image = new BufferedImage(2, 2, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, 0xFFFF00FF);
+        image.setRGB(1, 1, 0xFFFF00FF);
+        image.setRGB(1, 0, 0xFF000000);
+        image.setRGB(0, 1, 0xFF000000);
         return image;
     }
 }
\ No newline at end of file